@@ -0,0 +1,63 @@
+import java.util.HashMap;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * the operations the benchmarks measure, handed out as JDK functional interfaces
+ * the engine's classes are in the default package, which classes in a named package (and so the
+ * JMH benchmarks) can't refer to, so the benchmarks look this class up by name and only call these
+ */
+public class Workloads {
+	private static final int ASSIGNMENTS = 256;//assignments evaluate() cycles through
+
+	/**
+	 * @return the constructor, which tokenizes the sentence and runs shunting yard on it
+	 */
+	public static Function<String,Object> parse() {
+		return LogicalSentence::new;
+	}
+
+	/**
+	 * @param sentence - sentence to evaluate
+	 * @param seed - seed of the random assignments
+	 * @return evaluate() of the sentence on the (i % 256)th of a set of random assignments
+	 */
+	public static IntPredicate evaluate(String sentence, long seed) {
+		LogicalSentence ls = new LogicalSentence(sentence);
+		String[] variables = ls.getDistinctVariables();
+		Random random = new Random(seed);
+		@SuppressWarnings("unchecked")
+		HashMap<String,Integer>[] assignments = new HashMap[ASSIGNMENTS];
+		for (int i = 0; i < ASSIGNMENTS; i++) {
+			assignments[i] = new HashMap<>();
+			for (String v : variables) {
+				assignments[i].put(v, random.nextInt(2));
+			}
+		}
+		return i -> ls.evaluate(assignments[i & (ASSIGNMENTS - 1)]);
+	}
+
+	public static Supplier<Object> allPossibleOutcomes(String sentence) {
+		LogicalSentence ls = new LogicalSentence(sentence);
+		return ls::allPossibleOutcomes;
+	}
+
+	public static Supplier<Object> getSatisfyingValues(String sentence) {
+		LogicalSentence ls = new LogicalSentence(sentence);
+		return ls::getSatisfyingValues;
+	}
+
+	public static Supplier<Object> entails(String first, String second) {
+		LogicalSentence a = new LogicalSentence(first);
+		LogicalSentence b = new LogicalSentence(second);
+		return () -> a.entails(b);
+	}
+
+	public static Supplier<Object> equivalent(String first, String second) {
+		LogicalSentence a = new LogicalSentence(first);
+		LogicalSentence b = new LogicalSentence(second);
+		return () -> a.equivalent(b);
+	}
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import java.lang.reflect.Method;
+
+/**
+ * gets operations from the default package Workloads class, looked up by name since it can't be imported
+ */
+final class Engine {
+	private static final Class<?> WORKLOADS;
+
+	static {
+		try {
+			WORKLOADS = Class.forName("Workloads");
+		} catch (ClassNotFoundException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private Engine() {
+	}
+
+	/**
+	 * @param name - name of the Workloads method
+	 * @param args - arguments of the method
+	 * @return what the method returns
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T get(String name, Object... args) {
+		for (Method m : WORKLOADS.getMethods()) {
+			if (m.getName().equals(name) && m.getParameterCount() == args.length) {
+				try {
+					return (T) m.invoke(null, args);
+				} catch (ReflectiveOperationException e) {
+					throw new IllegalStateException("Workloads." + name + " failed", e);
+				}
+			}
+		}
+		throw new IllegalArgumentException("no Workloads." + name + " with " + args.length + " arguments");
+	}
+}
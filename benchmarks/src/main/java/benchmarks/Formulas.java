@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * random sentences for the benchmarks, the same seed always gives the same sentence
+ */
+final class Formulas {
+
+	private Formulas() {
+	}
+
+	/**
+	 * @param prefix - prefix of the variable names
+	 * @param count - number of variables
+	 * @return prefix0, prefix1, ...
+	 */
+	static List<String> variables(String prefix, int count) {
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			names.add(prefix + i);
+		}
+		return names;
+	}
+
+	/**
+	 * @param variables - variables of the sentence, each one appears at least once if length allows
+	 * @param length - number of variable occurrences in the sentence
+	 * @param seed - seed of the sentence
+	 * @return a random sentence of &, | and ~ over the variables
+	 */
+	static String random(List<String> variables, int length, long seed) {
+		Random random = new Random(seed);
+		List<String> leaves = new ArrayList<>();
+		for (int i = 0; i < length; i++) {
+			leaves.add(i < variables.size() ? variables.get(i) : variables.get(random.nextInt(variables.size())));
+		}
+		Collections.shuffle(leaves, random);
+		StringBuilder sb = new StringBuilder();
+		build(leaves, 0, leaves.size(), random, sb);
+		return sb.toString();
+	}
+
+	private static void build(List<String> leaves, int from, int to, Random random, StringBuilder sb) {
+		boolean negated = random.nextInt(5) == 0;
+		if (negated) {
+			sb.append('~');
+		}
+		if (to - from == 1) {
+			sb.append(leaves.get(from));
+			return;
+		}
+		int middle = from + 1 + random.nextInt(to - from - 1);
+		sb.append('(');
+		build(leaves, from, middle, random, sb);
+		sb.append(random.nextBoolean() ? " & " : " | ");
+		build(leaves, middle, to, random, sb);
+		sb.append(')');
+	}
+}
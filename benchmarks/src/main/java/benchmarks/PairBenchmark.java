@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * operations on two sentences, overlap is the fraction of the first sentence's variables the
+ * second one also uses (the rest of its variables are its own)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PairBenchmark {
+
+	@Param({ "4", "10", "16" })
+	int variables;
+
+	@Param({ "32", "256" })
+	int length;
+
+	@Param({ "0.0", "0.5", "1.0" })
+	double overlap;
+
+	private Supplier<Object> entails;
+	private Supplier<Object> equivalent;
+
+	@Setup
+	public void setUp() {
+		List<String> first = Formulas.variables("x", variables);
+		int shared = (int) Math.round(overlap * variables);
+		List<String> second = Formulas.variables("y", variables);
+		for (int i = 0; i < shared; i++) {
+			second.set(i, first.get(i));
+		}
+		String a = Formulas.random(first, length, 42);
+		String b = Formulas.random(second, length, 43);
+		entails = Engine.get("entails", a, b);
+		equivalent = Engine.get("equivalent", a, b);
+	}
+
+	@Benchmark
+	public Object entails() {
+		return entails.get();
+	}
+
+	@Benchmark
+	public Object equivalent() {
+		return equivalent.get();
+	}
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * single sentence operations, by number of distinct variables and number of variable occurrences
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SentenceBenchmark {
+
+	@Param({ "4", "10", "16" })
+	int variables;
+
+	@Param({ "32", "256" })
+	int length;
+
+	private String sentence;
+	private Function<String,Object> parse;
+	private IntPredicate evaluate;
+	private Supplier<Object> allPossibleOutcomes;
+	private Supplier<Object> getSatisfyingValues;
+	private int row;
+
+	@Setup
+	public void setUp() {
+		sentence = Formulas.random(Formulas.variables("x", variables), length, 42);
+		parse = Engine.get("parse");
+		evaluate = Engine.get("evaluate", sentence, 7L);
+		allPossibleOutcomes = Engine.get("allPossibleOutcomes", sentence);
+		getSatisfyingValues = Engine.get("getSatisfyingValues", sentence);
+	}
+
+	@Benchmark
+	public Object parse() {
+		return parse.apply(sentence);
+	}
+
+	@Benchmark
+	public boolean evaluate() {
+		return evaluate.test(row++);
+	}
+
+	@Benchmark
+	public Object allPossibleOutcomes() {
+		return allPossibleOutcomes.get();
+	}
+
+	@Benchmark
+	public Object getSatisfyingValues() {
+		return getSatisfyingValues.get();
+	}
+}
@@ -0,0 +1,69 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * columnar evaluation of many assignments against brute force evaluation of each one
+ */
+public class BatchEvaluationTest {
+	private static final int SENTENCES = 200;
+
+	@Test
+	public void packedColumnsAgree() {
+		Random random = new Random(18);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 6, 5);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			int n = sentence.getNumOfDistinctVariablesInSentence();
+			int rows = 100;//a full word and part of one
+			long[][] columns = new long[n][2];
+			for (long[] column : columns) {
+				column[0] = random.nextLong();
+				column[1] = random.nextLong();
+			}
+			long[] result = sentence.evaluateBatch(columns, rows);
+			for (int r = 0; r < rows; r++) {
+				long row = 0;
+				for (int k = 0; k < n; k++) {
+					row = row << 1 | ((columns[k][r >>> 6] >>> (r & 63)) & 1);
+				}
+				boolean expected = node.evaluate(sentence.toAssignment(row));
+				assertEquals(node.toString(), expected, ((result[r >>> 6] >>> (r & 63)) & 1) != 0);
+			}
+			for (int r = rows; r < 128; r++) {
+				assertEquals(node.toString(), 0, (result[r >>> 6] >>> (r & 63)) & 1);//rows past the end stay clear
+			}
+		}
+	}
+
+	@Test
+	public void namedColumnsAgree() {
+		Random random = new Random(22);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 6, 5);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			int rows = 70;
+			HashMap<String,BitSet> columns = new HashMap<>();
+			for (String name : sentence.getDistinctVariables()) {
+				BitSet column = new BitSet();
+				for (int r = 0; r < rows; r++) {
+					column.set(r, random.nextBoolean());
+				}
+				columns.put(name, column);
+			}
+			BitSet result = sentence.evaluateBatch(columns, rows);
+			for (int r = 0; r < rows; r++) {
+				HashMap<String,Integer> values = new HashMap<>();
+				for (String name : columns.keySet()) {
+					values.put(name, columns.get(name).get(r) ? 1 : 0);
+				}
+				assertEquals(node.toString(), node.evaluate(values), result.get(r));
+			}
+			assertEquals(node.toString(), -1, result.nextSetBit(rows));
+		}
+	}
+}
@@ -0,0 +1,160 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * batch runs against classes and entailments worked out on brute force truth tables
+ */
+public class BatchModeTest {
+
+	/**
+	 * @return V, C or U for the tree on every assignment of its variables
+	 */
+	private static char classify(RandomSentences.Node node) {
+		long count = RandomSentences.countModels(node);
+		return count == 0 ? 'U' : count == 1L << RandomSentences.variables(node).length ? 'V' : 'C';
+	}
+
+	private static boolean entails(RandomSentences.Node a, RandomSentences.Node b) {
+		for (HashMap<String,Integer> values : RandomSentences.assignments(RandomSentences.variables(a, b))) {
+			if (a.evaluate(values) && !b.evaluate(values)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String run(BatchMode batch, String input, ByteArrayOutputStream errors) throws IOException {
+		StringWriter out = new StringWriter();
+		batch.run(new BufferedReader(new StringReader(input)), out, new PrintStream(errors, true, "UTF-8"));
+		return out.toString();
+	}
+
+	/**
+	 * many more chunks than the queue holds, of uneven cost, so the workers finish them out of order
+	 */
+	@Test(timeout = 60000)
+	public void outputKeepsInputOrder() throws IOException {
+		Random random = new Random(20);
+		StringBuilder input = new StringBuilder();
+		StringBuilder expected = new StringBuilder();
+		int lines = 2000;
+		int pairs = 0;
+		int sentences = 0;
+		for (int line = 1; line <= lines; line++) {
+			if (random.nextInt(50) == 0) {
+				input.append('\n');
+				continue;
+			}
+			RandomSentences.Node a = RandomSentences.random(random, 2 + random.nextInt(8), 2 + random.nextInt(5));
+			expected.append(line).append('\t').append(classify(a));
+			if (random.nextBoolean()) {
+				RandomSentences.Node b = RandomSentences.random(random, 2 + random.nextInt(8), 2 + random.nextInt(5));
+				boolean forward = entails(a, b);
+				boolean backward = entails(b, a);
+				input.append(a).append('\t').append(b);
+				expected.append('\t').append(classify(b)).append('\t')
+						.append(forward ? 'T' : 'F').append(backward ? 'T' : 'F').append(forward && backward ? 'T' : 'F');
+				pairs++;
+			} else {
+				input.append(a);
+				sentences++;
+			}
+			input.append('\n');
+			expected.append('\n');
+		}
+		ByteArrayOutputStream errors = new ByteArrayOutputStream();
+		BatchMode batch = new BatchMode(4, 2, 7);//2000 lines are about 286 chunks through a queue of 2
+		StringWriter out = new StringWriter();
+		BatchMode.Summary summary = batch.run(new BufferedReader(new StringReader(input.toString())), out,
+				new PrintStream(errors, true, "UTF-8"));
+		assertEquals(expected.toString(), out.toString());
+		assertEquals(0, errors.size());
+		assertEquals(lines, summary.getLines());
+		assertEquals(pairs, summary.getPairs());
+		assertEquals(sentences, summary.getSentences());
+		assertEquals(0, summary.getMalformed());
+	}
+
+	@Test(timeout = 60000)
+	public void malformedLinesAreReportedAndSkipped() throws IOException {
+		String input = "a & b\n"
+				+ "a &\n"
+				+ "a\tb\tc\n"
+				+ "\n"
+				+ "a | ~a\ta -> a\n"
+				+ "b & ~b\n";
+		ByteArrayOutputStream errors = new ByteArrayOutputStream();
+		String output = run(new BatchMode(2, 1, 2), input, errors);
+		assertEquals("1\tC\n5\tV\tV\tTTT\n6\tU\n", output);
+		String[] reported = new String(errors.toByteArray(), StandardCharsets.UTF_8).split("\\R");
+		assertEquals(2, reported.length);
+		assertTrue(reported[0], reported[0].startsWith("line 2: "));
+		assertEquals("line 3: more than two sentences", reported[1]);
+	}
+
+	/**
+	 * the reader fails after a few chunks are in flight, run must throw and leave no worker or writer behind
+	 */
+	@Test(timeout = 60000)
+	public void failingInputEndsTheRun() throws InterruptedException {
+		Set<Thread> before = new HashSet<>(Thread.getAllStackTraces().keySet());
+		StringBuilder lines = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			lines.append("(v0 & v1) | ~v").append(i % 7).append('\n');
+		}
+		Reader text = new StringReader(lines.toString());
+		Reader failing = new Reader() {
+			@Override
+			public int read(char[] buffer, int offset, int length) throws IOException {
+				int n = text.read(buffer, offset, length);
+				if (n == -1) {
+					throw new IOException("disk gone");
+				}
+				return n;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		try {
+			new BatchMode(3, 2, 4).run(new BufferedReader(failing, 64), new StringWriter(), System.err);
+			fail("the failure of the input wasn't thrown");
+		} catch (IOException e) {
+			assertEquals("disk gone", e.getMessage());
+		}
+		List<Thread> left = new ArrayList<>();
+		for (int attempt = 0; attempt < 100; attempt++) {//workers of shutdownNow() end shortly after run returns
+			left.clear();
+			for (Thread thread : Thread.getAllStackTraces().keySet()) {
+				if (!before.contains(thread) && thread.isAlive()
+						&& (!thread.isDaemon() || thread.getName().equals("BatchMode writer"))) {
+					left.add(thread);
+				}
+			}
+			if (left.isEmpty()) {
+				return;
+			}
+			Thread.sleep(50);
+		}
+		fail("threads left running: " + left);
+	}
+}
@@ -0,0 +1,59 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * BDDs against brute force truth tables
+ */
+public class BddManagerTest {
+	private static final int SENTENCES = 300;
+
+	/**
+	 * @return value of a BDD on an assignment, by walking from the root to a terminal
+	 */
+	private static boolean evaluate(BddManager manager, int f, HashMap<String,Integer> values) {
+		String[] order = manager.getVariableOrder();
+		while (f != BddManager.TRUE && f != BddManager.FALSE) {
+			f = values.get(order[manager.getNodeLevel(f)]) == 1 ? manager.getHigh(f) : manager.getLow(f);
+		}
+		return f == BddManager.TRUE;
+	}
+
+	@Test
+	public void bddAgreesWithTruthTable() {
+		Random random = new Random(6);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 6, 5);
+			BddManager manager = new BddManager();
+			int f = new LogicalSentence(node.toString()).toBdd(manager);
+			for (HashMap<String,Integer> values : RandomSentences.assignments(RandomSentences.variables(node))) {
+				assertEquals(node.toString(), node.evaluate(values), evaluate(manager, f, values));
+			}
+		}
+	}
+
+	@Test
+	public void equalNodesExactlyForEquivalentSentences() {
+		Random random = new Random(7);
+		BddManager manager = new BddManager();
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node first = RandomSentences.random(random, 3, 3);
+			RandomSentences.Node second = RandomSentences.random(random, 3, 3);
+			boolean equivalent = true;
+			boolean entails = true;
+			for (HashMap<String,Integer> values : RandomSentences.assignments(RandomSentences.variables(first, second))) {
+				equivalent &= first.evaluate(values) == second.evaluate(values);
+				entails &= !first.evaluate(values) || second.evaluate(values);
+			}
+			int f = new LogicalSentence(first.toString()).toBdd(manager);
+			int g = new LogicalSentence(second.toString()).toBdd(manager);
+			String pair = first + " , " + second;
+			assertEquals(pair, equivalent, f == g);
+			assertEquals(pair, entails, manager.entails(f, g));
+			assertEquals(pair, f, manager.not(manager.not(f)));
+		}
+	}
+}
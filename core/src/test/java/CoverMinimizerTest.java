@@ -0,0 +1,91 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Quine-McCluskey and Espresso covers against brute force truth tables: every cover has to have exactly the
+ * rows of the sentence, and be made of prime implicants none of which could be dropped
+ */
+public class CoverMinimizerTest {
+	private static final int SENTENCES = 150;
+
+	/**
+	 * @param truth - value of the sentence on each row of its variables
+	 */
+	private static void checkCover(String sentence, Cover cover, boolean[] truth) {
+		for (int row = 0; row < truth.length; row++) {
+			assertEquals(sentence + " row " + row, truth[row], cover.contains(row));
+		}
+		for (int i = 0; i < cover.size(); i++) {
+			long care = cover.getCare(i);
+			for (long bits = care; bits != 0; bits &= bits - 1) {
+				long dropped = care & ~Long.lowestOneBit(bits);//the cube without one of its literals
+				boolean implicant = true;
+				for (int row = 0; row < truth.length && implicant; row++) {
+					implicant = !inCube(row, dropped, cover.getValues(i)) || truth[row];
+				}
+				assertFalse(sentence + " cube " + cover.getCube(i) + " isn't prime", implicant);
+			}
+			boolean needed = false;
+			for (int row = 0; row < truth.length && !needed; row++) {
+				if (inCube(row, care, cover.getValues(i))) {
+					needed = true;
+					for (int j = 0; j < cover.size() && needed; j++) {
+						needed = j == i || !inCube(row, cover.getCare(j), cover.getValues(j));
+					}
+				}
+			}
+			assertTrue(sentence + " cube " + cover.getCube(i) + " is redundant", needed);
+		}
+	}
+
+	private static boolean inCube(long row, long care, long values) {
+		return ((row ^ values) & care) == 0;
+	}
+
+	@Test
+	public void quineMcCluskeyCoversExactlyTheModels() {
+		Random random = new Random(8);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 6, 5);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			Cover cover = CoverMinimizer.quineMcCluskey(sentence.getDistinctVariables(), sentence.truthTable());
+			checkCover(node.toString(), cover, RandomSentences.truth(node, sentence));
+			assertEquals(node.toString(), cover.size(), sentence.minimizedCover().size());//small enough for the same path
+		}
+	}
+
+	@Test
+	public void espressoCoversExactlyTheModels() {
+		Random random = new Random(9);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 7, 5);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			String[] variables = sentence.getDistinctVariables();
+			BddManager manager = new BddManager(variables);
+			Cover cover = CoverMinimizer.espresso(variables, manager, sentence.toBdd(manager));
+			checkCover(node.toString(), cover, RandomSentences.truth(node, sentence));
+		}
+	}
+
+	@Test
+	public void minimizedCoverAboveTheExactLimit() {
+		Random random = new Random(10);
+		for (int i = 0; i < 20; i++) {
+			RandomSentences.Node node;
+			LogicalSentence sentence;
+			do {
+				node = RandomSentences.random(random, 12, 7);
+				sentence = new LogicalSentence(node.toString());
+			} while (sentence.getNumOfDistinctVariablesInSentence() <= 10);//Espresso's side of minimizedCover()
+			Cover cover = sentence.minimizedCover();
+			checkCover(node.toString(), cover, RandomSentences.truth(node, sentence));
+			LogicalSentence back = new LogicalSentence(cover.toString());
+			assertEquals(node.toString(), ThreeValuedVariable.TRUE, back.equivalent(sentence).toInt());
+		}
+	}
+}
@@ -0,0 +1,99 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * the pruned matrix against asking entails() of every ordered pair
+ */
+public class EntailmentMatrixTest {
+
+	/**
+	 * @return the tree with every variable vK renamed to prefix + K
+	 */
+	private static String rename(RandomSentences.Node node, String prefix) {
+		return node.toString().replace("v", prefix);
+	}
+
+	/**
+	 * sentences over shared, disjoint and nested variable sets, a few wide enough to have no truth
+	 * table in the matrix, and valid and unsatisfiable ones
+	 */
+	private static ArrayList<LogicalSentence> sentences(Random random) {
+		ArrayList<LogicalSentence> sentences = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			sentences.add(new LogicalSentence(RandomSentences.random(random, 4, 3).toString()));//shared v0..v3
+			sentences.add(new LogicalSentence(RandomSentences.random(random, 8, 4).toString()));//v0..v7, nesting the ones above
+			sentences.add(new LogicalSentence(rename(RandomSentences.random(random, 3, 3), "w")));//disjoint from the v's
+		}
+		for (int i = 0; i < 4; i++) {
+			LogicalSentence wide;
+			do {
+				wide = new LogicalSentence(RandomSentences.random(random, 20, 7).toString());
+			} while (wide.getNumOfDistinctVariablesInSentence() <= 16);
+			sentences.add(wide);
+		}
+		StringBuilder conjunction = new StringBuilder("v0");
+		for (int k = 1; k < 18; k++) {
+			conjunction.append(" & v").append(k);
+		}
+		sentences.add(new LogicalSentence(conjunction.toString()));//wide, entails every v and most of the v sentences
+		sentences.add(new LogicalSentence("v0 & v1"));
+		sentences.add(new LogicalSentence("v0"));
+		sentences.add(new LogicalSentence("v1 & v0"));//same node as v0 & v1
+		sentences.add(new LogicalSentence("v2 | ~v2"));
+		sentences.add(new LogicalSentence("w0 & ~w0"));
+		sentences.add(new LogicalSentence("1"));
+		sentences.add(new LogicalSentence("0"));
+		return sentences;
+	}
+
+	@Test(timeout = 120000)
+	public void matrixAgreesWithPairwiseEntails() {
+		Random random = new Random(23);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (int round = 0; round < 3; round++) {
+				ArrayList<LogicalSentence> sentences = sentences(random);
+				EntailmentMatrix matrix = EntailmentMatrix.compute(sentences, pool);
+				int n = sentences.size();
+				assertEquals(n, matrix.size());
+				for (int i = 0; i < n; i++) {
+					ArrayList<Integer> entailed = new ArrayList<>();
+					for (int j = 0; j < n; j++) {
+						int expected = sentences.get(i).entails(sentences.get(j)).toInt();
+						String pair = String.join(" ", sentences.get(i).getSentence()) + " |= " + String.join(" ", sentences.get(j).getSentence());
+						assertEquals(pair, expected, matrix.entails(i, j).toInt());
+						int back = sentences.get(j).entails(sentences.get(i)).toInt();
+						int equivalent = expected == ThreeValuedVariable.TRUE && back == ThreeValuedVariable.TRUE ? ThreeValuedVariable.TRUE : ThreeValuedVariable.FALSE;
+						assertEquals(pair, equivalent, matrix.equivalent(i, j).toInt());
+						if (expected == ThreeValuedVariable.TRUE) {
+							entailed.add(j);
+						}
+					}
+					assertArrayEquals(entailed.stream().mapToInt(Integer::intValue).toArray(), matrix.getEntailed(i));
+				}
+				assertTrue(matrix.getNumOfTableChecks() > 0);//the table path was taken, not only pruning and the solver
+				assertTrue(matrix.getNumOfSolverCalls() > 0);
+				assertTrue(matrix.getNumOfTableChecks() + matrix.getNumOfSolverCalls() < (long) n * n);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void emptyAndSingle() {
+		assertEquals(0, EntailmentMatrix.compute(new ArrayList<LogicalSentence>()).size());
+		ArrayList<LogicalSentence> one = new ArrayList<>();
+		one.add(new LogicalSentence("a -> b"));
+		EntailmentMatrix matrix = EntailmentMatrix.compute(one);
+		assertEquals(ThreeValuedVariable.TRUE, matrix.entails(0, 0).toInt());
+		assertArrayEquals(new int[] {0}, matrix.getEntailed(0));
+	}
+}
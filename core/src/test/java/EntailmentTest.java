@@ -0,0 +1,74 @@
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * entails and equivalent against brute force truth tables over the variables of both sentences
+ */
+public class EntailmentTest {
+	private static final int PAIRS = 300;
+
+	/**
+	 * @return a LogicalExpression that isn't a LogicalSentence, answering every call with the sentence's answer
+	 */
+	private static LogicalExpression foreign(LogicalSentence sentence) {
+		return (LogicalExpression) Proxy.newProxyInstance(LogicalExpression.class.getClassLoader(),
+				new Class<?>[] {LogicalExpression.class}, (proxy, method, args) -> {
+					try {
+						return method.invoke(sentence, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+	}
+
+	@Test
+	public void entailsAndEquivalent() {
+		Random random = new Random(4);
+		for (int i = 0; i < PAIRS; i++) {
+			RandomSentences.Node first = RandomSentences.random(random, 5, 3);
+			RandomSentences.Node second = RandomSentences.random(random, 5, 3);
+			boolean entails = true;
+			boolean equivalent = true;
+			for (HashMap<String,Integer> values : RandomSentences.assignments(RandomSentences.variables(first, second))) {
+				boolean a = first.evaluate(values);
+				boolean b = second.evaluate(values);
+				entails &= !a || b;
+				equivalent &= a == b;
+			}
+			LogicalSentence s1 = new LogicalSentence(first.toString());
+			LogicalSentence s2 = new LogicalSentence(second.toString());
+			String pair = first + " , " + second;
+			int expectedEntails = entails ? ThreeValuedVariable.TRUE : ThreeValuedVariable.FALSE;
+			int expectedEquivalent = equivalent ? ThreeValuedVariable.TRUE : ThreeValuedVariable.FALSE;
+			assertEquals(pair, expectedEntails, s1.entails(s2).toInt());
+			assertEquals(pair, expectedEquivalent, s1.equivalent(s2).toInt());
+			assertEquals(pair, expectedEntails, s1.entails(foreign(s2)).toInt());
+			assertEquals(pair, expectedEquivalent, s1.equivalent(foreign(s2)).toInt());
+		}
+	}
+
+	@Test
+	public void disjointVariables() {
+		LogicalSentence a = new LogicalSentence("a & b");
+		assertEquals(ThreeValuedVariable.FALSE, a.entails(new LogicalSentence("c")).toInt());
+		assertEquals(ThreeValuedVariable.TRUE, a.entails(new LogicalSentence("c | ~c")).toInt());
+		assertEquals(ThreeValuedVariable.TRUE, new LogicalSentence("c & ~c").entails(a).toInt());
+		assertEquals(ThreeValuedVariable.FALSE, a.entails(foreign(new LogicalSentence("c"))).toInt());
+		assertEquals(ThreeValuedVariable.TRUE, a.entails(foreign(new LogicalSentence("a | c"))).toInt());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void foreignExpressionWithTooManyVariables() {
+		StringBuilder sb = new StringBuilder("v0");
+		for (int i = 1; i < 25; i++) {
+			sb.append(" | v").append(i);
+		}
+		new LogicalSentence("v0").entails(foreign(new LogicalSentence(sb.toString())));
+	}
+}
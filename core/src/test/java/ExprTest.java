@@ -0,0 +1,77 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * hash-consing of the expression DAG
+ */
+public class ExprTest {
+
+	@Test
+	public void sameStructureIsTheSameNode() {
+		Expr a = Expr.variable(SymbolTable.intern("a"));
+		Expr b = Expr.variable(SymbolTable.intern("b"));
+		assertSame(Expr.and(a, b), Expr.and(b, a));
+		assertSame(Expr.iff(a, b), Expr.iff(b, a));
+		assertNotSame(Expr.implies(a, b), Expr.implies(b, a));
+		assertNotSame(Expr.and(a, b), Expr.or(a, b));
+		assertSame(Expr.not(Expr.xor(a, b)), Expr.not(Expr.xor(b, a)));
+		LogicalSentence s1 = new LogicalSentence("(a & b) | ~c");
+		LogicalSentence s2 = new LogicalSentence("~c | (b & a)");
+		assertSame(s1.getExpression(), s2.getExpression());
+	}
+
+	/**
+	 * ids used to be ints: once they wrapped, a new node could get the id of a live one (or -1, the
+	 * "no child" of the keys) and be hash-consed onto an unrelated formula
+	 */
+	@Test
+	public void idsPastTheIntRange() throws ReflectiveOperationException {
+		Field field = Expr.class.getDeclaredField("nextId");
+		field.setAccessible(true);
+		AtomicLong nextId = (AtomicLong) field.get(null);
+		nextId.set(Math.max(nextId.get(), Integer.MAX_VALUE - 2L));
+		HashSet<Long> ids = new HashSet<>();
+		Expr previous = Expr.variable(SymbolTable.intern("wide0"));
+		for (int i = 1; i < 10; i++) {
+			Expr next = Expr.and(previous, Expr.variable(SymbolTable.intern("wide" + i)));
+			assertTrue(next.getId() >= 0);
+			assertTrue(ids.add(next.getId()));
+			previous = next;
+		}
+		assertTrue(previous.getId() > Integer.MAX_VALUE);
+		Random random = new Random(20);
+		for (int i = 0; i < 50; i++) {//sentences whose nodes all have ids past the int range still compile right
+			RandomSentences.Node node = RandomSentences.random(random, 6, 5);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			boolean[] truth = RandomSentences.truth(node, sentence);
+			for (int row = 0; row < truth.length; row++) {
+				assertEquals(node.toString(), truth[row], sentence.evaluate(row));
+			}
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void unusedNodesAreDropped() throws InterruptedException {
+		int before = Expr.getNumOfNodes();
+		for (int i = 0; i < 20000; i++) {
+			new LogicalSentence("(x" + i + " & y" + i + ") | ~z" + i);//six nodes of its own, dropped with the sentence
+		}
+		int after = Expr.getNumOfNodes();
+		for (int attempt = 0; attempt < 50 && after > before + 20000; attempt++) {
+			System.gc();
+			Thread.sleep(20);
+			Expr.variable(SymbolTable.intern("x0"));//building a node takes the collected ones out of the table
+			after = Expr.getNumOfNodes();
+		}
+		assertTrue(before + " nodes before, " + after + " after", after <= before + 20000);
+	}
+}
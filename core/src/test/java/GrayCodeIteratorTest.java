@@ -0,0 +1,87 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * the Gray code walk against brute force truth tables
+ */
+public class GrayCodeIteratorTest {
+	private static final int SENTENCES = 200;
+
+	@Test
+	public void grayCodeWalkAgrees() {
+		Random random = new Random(15);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 8, 6);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			boolean[] truth = RandomSentences.truth(node, sentence);
+			boolean[] seen = new boolean[truth.length];
+			GrayCodeIterator walk = sentence.grayCodeRows();
+			long previous = -1;
+			while (walk.hasNext()) {
+				long row = walk.nextLong();
+				assertEquals(node + " row " + row, truth[(int) row], walk.value());
+				assertFalse(node.toString(), seen[(int) row]);
+				seen[(int) row] = true;
+				if (previous >= 0) {
+					assertEquals(node.toString(), 1, Long.bitCount(row ^ previous));
+				}
+				previous = row;
+			}
+			for (boolean s : seen) {
+				assertTrue(node.toString(), s);
+			}
+		}
+	}
+
+	@Test
+	public void walkEndsAfterTheLastRow() {
+		GrayCodeIterator walk = new LogicalSentence("a ^ b").grayCodeRows();
+		try {
+			walk.value();
+			fail("value() before the first row");
+		} catch (IllegalStateException e) {
+			//expected
+		}
+		long[] rows = new long[4];
+		boolean[] values = new boolean[4];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = walk.nextLong();
+			values[i] = walk.value();
+		}
+		assertEquals(0b00, rows[0]);
+		assertEquals(0b01, rows[1]);
+		assertEquals(0b11, rows[2]);
+		assertEquals(0b10, rows[3]);
+		assertFalse(values[0]);
+		assertTrue(values[1]);
+		assertFalse(values[2]);
+		assertTrue(values[3]);
+		assertFalse(walk.hasNext());
+		try {
+			walk.nextLong();
+			fail("nextLong() past the last row");
+		} catch (NoSuchElementException e) {
+			//expected
+		}
+	}
+
+	@Test
+	public void sentenceWithoutVariablesHasOneRow() {
+		GrayCodeIterator walk = new LogicalSentence("1 & ~0").grayCodeRows();
+		assertEquals(0, walk.nextLong());
+		assertTrue(walk.value());
+		assertFalse(walk.hasNext());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void tooManyVariablesToWalk() {
+		new LogicalSentence(ParallelTruthTableTest.chain("|", GrayCodeIterator.MAX_VARIABLES + 1)).grayCodeRows();
+	}
+}
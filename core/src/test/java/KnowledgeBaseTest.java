@@ -0,0 +1,134 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * incremental queries against LogicalSentence.entails() on the conjunction of the facts that hold
+ */
+public class KnowledgeBaseTest {
+	private static final int ROUNDS = 40;
+	private static final int STEPS = 30;
+
+	private static int entails(KnowledgeBase kb, String query) {
+		return kb.entails(new LogicalSentence(query)).toInt();
+	}
+
+	/**
+	 * @return the facts joined with &, 1 if there are none
+	 */
+	private static LogicalSentence conjunction(List<String> facts) {
+		if (facts.isEmpty()) {
+			return new LogicalSentence("1");
+		}
+		StringBuilder sb = new StringBuilder();
+		for (String fact : facts) {
+			if (sb.length() > 0) {
+				sb.append(" & ");
+			}
+			sb.append('(').append(fact).append(')');
+		}
+		return new LogicalSentence(sb.toString());
+	}
+
+	@Test
+	public void popRetractsFacts() {
+		KnowledgeBase kb = new KnowledgeBase();
+		kb.add(new LogicalSentence("p -> q"));
+		assertEquals(ThreeValuedVariable.FALSE, entails(kb, "q"));
+		kb.push();
+		kb.add(new LogicalSentence("p"));
+		assertEquals(ThreeValuedVariable.TRUE, entails(kb, "q"));
+		kb.pop();
+		assertEquals(ThreeValuedVariable.FALSE, entails(kb, "q"));
+		assertEquals(ThreeValuedVariable.FALSE, entails(kb, "p"));
+		assertEquals(ThreeValuedVariable.TRUE, entails(kb, "~q -> ~p"));
+		assertEquals(1, kb.getFacts().size());
+	}
+
+	@Test
+	public void nestedScopes() {
+		KnowledgeBase kb = new KnowledgeBase();
+		kb.push();
+		kb.add(new LogicalSentence("a"));
+		kb.push();
+		kb.add(new LogicalSentence("b"));
+		kb.add(new LogicalSentence("~a"));
+		assertEquals(2, kb.getNumOfScopes());
+		assertFalse(kb.satisfiable());
+		assertEquals(ThreeValuedVariable.TRUE, entails(kb, "c"));//anything follows from a contradiction
+		kb.pop();
+		assertEquals(1, kb.getNumOfScopes());
+		assertTrue(kb.satisfiable());
+		assertEquals(ThreeValuedVariable.TRUE, entails(kb, "a"));
+		assertEquals(ThreeValuedVariable.FALSE, entails(kb, "b"));
+		assertEquals(1, kb.getFacts().size());
+		kb.push();
+		kb.add(new LogicalSentence("a -> b"));
+		assertEquals(ThreeValuedVariable.TRUE, entails(kb, "b"));
+		kb.pop();
+		kb.pop();
+		assertEquals(0, kb.getNumOfScopes());
+		assertEquals(ThreeValuedVariable.FALSE, entails(kb, "a"));
+		assertTrue(kb.getFacts().isEmpty());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void popWithoutPush() {
+		new KnowledgeBase().pop();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void foreignQuery() {
+		KnowledgeBase kb = new KnowledgeBase();
+		kb.add(new LogicalSentence("a"));
+		LogicalExpression foreign = (LogicalExpression) Proxy.newProxyInstance(LogicalExpression.class.getClassLoader(),
+				new Class<?>[] {LogicalExpression.class}, (proxy, method, args) -> {
+					throw new UnsupportedOperationException(method.getName());
+				});
+		kb.entails(foreign);
+	}
+
+	/**
+	 * random adds, pushes and pops, after each of them the knowledge base and the conjunction of the
+	 * facts that should hold must agree on satisfiability and on random queries
+	 */
+	@Test
+	public void agreesWithEntailsOnTheConjunction() {
+		Random random = new Random(19);
+		for (int round = 0; round < ROUNDS; round++) {
+			KnowledgeBase kb = new KnowledgeBase();
+			List<String> facts = new ArrayList<>();
+			List<Integer> scopeStarts = new ArrayList<>();
+			for (int step = 0; step < STEPS; step++) {
+				int action = random.nextInt(6);
+				if (action == 0) {
+					kb.push();
+					scopeStarts.add(facts.size());
+				} else if (action == 1 && !scopeStarts.isEmpty()) {
+					kb.pop();
+					int start = scopeStarts.remove(scopeStarts.size() - 1);
+					facts.subList(start, facts.size()).clear();
+				} else {
+					String fact = RandomSentences.random(random, 6, 3).toString();
+					kb.add(new LogicalSentence(fact));
+					facts.add(fact);
+				}
+				LogicalSentence all = conjunction(facts);
+				assertEquals(facts.toString(), all.satisfiable(), kb.satisfiable());
+				assertEquals(scopeStarts.size(), kb.getNumOfScopes());
+				assertEquals(facts.size(), kb.getFacts().size());
+				for (int q = 0; q < 3; q++) {
+					String query = RandomSentences.random(random, 6, 3).toString();
+					assertEquals(facts + " |= " + query, all.entails(new LogicalSentence(query)).toInt(), entails(kb, query));
+				}
+			}
+		}
+	}
+}
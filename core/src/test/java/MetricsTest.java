@@ -0,0 +1,99 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * the counts and timings JmxMetrics gets from the evaluator
+ */
+public class MetricsTest {
+	private JmxMetrics metrics;
+
+	@Before
+	public void install() {
+		metrics = JmxMetrics.install();
+		metrics.reset();
+	}
+
+	@After
+	public void uninstall() {
+		LogicalSentence.setMetrics(null);
+	}
+
+	@Test
+	public void countsParseEvaluateAndEntails() {
+		LogicalSentence a = new LogicalSentence("p & q");
+		LogicalSentence b = new LogicalSentence("p | q");
+		assertEquals(2, metrics.getSentencesParsed());
+		assertEquals(6, metrics.getTokensProcessed());
+		assertEquals(2L, (long) metrics.getPhaseCalls().get("PARSE"));
+
+		HashMap<String,Integer> values = new HashMap<>();
+		values.put("p", 1);
+		values.put("q", 0);
+		assertFalse(a.evaluate(values));
+		assertTrue(b.evaluate(values));
+		assertEquals(2, metrics.getEvaluationsRun());
+
+		assertEquals(ThreeValuedVariable.TRUE, a.entails(b).toInt());
+		assertEquals(ThreeValuedVariable.FALSE, b.entails(a).toInt());
+		Map<String,Long> calls = metrics.getPhaseCalls();
+		assertEquals(2L, (long) calls.get("ENTAILS"));
+		assertEquals(0L, (long) calls.get("EQUIVALENT"));
+		assertEquals(2L, (long) calls.get("PARSE"));
+		assertEquals(Metrics.Phase.values().length, calls.size());
+		assertEquals(calls.keySet(), metrics.getPhaseNanos().keySet());
+	}
+
+	@Test
+	public void expensiveSentencesAreOrderedByCost() {
+		LogicalSentence cheap = new LogicalSentence("a | b");
+		LogicalSentence dear = new LogicalSentence("a & b");
+		LogicalSentence middle = new LogicalSentence("a -> b");
+		LogicalSentence same = new LogicalSentence("a & b");//another object for the same sentence as dear
+		assertEquals(0, metrics.getExpensiveSentences().length);//not tracking yet
+		metrics.setTrackingSentences(true);
+		metrics.phaseTimed(Metrics.Phase.SOLVE, cheap, 1000);
+		metrics.phaseTimed(Metrics.Phase.SOLVE, dear, 5000000);
+		metrics.phaseTimed(Metrics.Phase.SOLVE, middle, 2000000);
+		metrics.phaseTimed(Metrics.Phase.SCAN, same, 1000000);
+
+		String[] top = metrics.getExpensiveSentences();
+		assertEquals(3, top.length);
+		assertEquals("6.000 ms in 2 calls: a b &", top[0]);
+		assertEquals("2.000 ms in 1 calls: a b ->", top[1]);
+		assertEquals("0.001 ms in 1 calls: a b |", top[2]);
+	}
+
+	@Test
+	public void resetClearsEverything() {
+		metrics.setTrackingSentences(true);
+		LogicalSentence sentence = new LogicalSentence("x ^ y");
+		sentence.evaluate(new boolean[] {true, false});
+		sentence.countModels();
+		sentence.entails(new LogicalSentence("x | y"));
+		assertTrue(metrics.getSentencesParsed() > 0);
+		assertTrue(metrics.getExpensiveSentences().length > 0);
+
+		metrics.reset();
+		assertEquals(0, metrics.getSentencesParsed());
+		assertEquals(0, metrics.getTokensProcessed());
+		assertEquals(0, metrics.getAssignmentsGenerated());
+		assertEquals(0, metrics.getEvaluationsRun());
+		assertEquals(0, metrics.getModelsReturned());
+		for (long calls : metrics.getPhaseCalls().values()) {
+			assertEquals(0, calls);
+		}
+		for (long nanos : metrics.getPhaseNanos().values()) {
+			assertEquals(0, nanos);
+		}
+		assertEquals(0, metrics.getExpensiveSentences().length);
+		assertTrue(metrics.isTrackingSentences());//a setting, not a count
+	}
+}
@@ -0,0 +1,86 @@
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * the #SAT counter against brute force truth tables
+ */
+public class ModelCounterTest {
+	private static final int SENTENCES = 300;
+
+	/**
+	 * @return the count of the ModelCounter on the Tseitin encoding, whatever the number of variables
+	 */
+	private static BigInteger count(LogicalSentence sentence) {
+		ModelCounter counter = new ModelCounter();
+		int[] variables = new int[sentence.getNumOfDistinctVariablesInSentence()];
+		for (int i = 0; i < variables.length; i++) {
+			variables[i] = counter.newVariable();
+		}
+		counter.addClause(Tseitin.encode(sentence, counter, variables));
+		return counter.count();
+	}
+
+	@Test
+	public void counterAgreesWithTruthTable() {
+		Random random = new Random(5);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 8, 6);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			long expected = RandomSentences.countModels(node);
+			assertEquals(node.toString(), BigInteger.valueOf(expected), count(sentence));
+			assertEquals(node.toString(), BigInteger.valueOf(expected), sentence.countModels());
+			assertEquals(node.toString(), expected, sentence.getNumOfSatisfyingValues());
+		}
+	}
+
+	@Test
+	public void countsClausesDirectly() {
+		ModelCounter counter = new ModelCounter();
+		int a = counter.newVariable();
+		int b = counter.newVariable();
+		int c = counter.newVariable();
+		counter.newVariable();//in no clause, doubles the count
+		counter.addClause(a, b);
+		counter.addClause(-a, c);
+		assertEquals(BigInteger.valueOf(8), counter.count());//(a | b) & (~a | c): 4 of the 8 rows of a, b, c
+		counter.addClause(-b, b);//always satisfied
+		assertEquals(BigInteger.valueOf(8), counter.count());
+		counter.addClause();
+		assertEquals(BigInteger.ZERO, counter.count());
+	}
+
+	/**
+	 * a wide | of &s used to recurse once per decision and overflow the stack long before the count
+	 * got big, so it is counted on a thread with a small stack
+	 */
+	@Test(timeout = 60000)
+	public void longDnfDoesNotOverflowTheStack() throws InterruptedException {
+		int terms = 1000;
+		StringBuilder sb = new StringBuilder("x0");
+		for (int t = 0; t < terms; t++) {
+			sb.append(" | x").append(3 * t + 1).append(" & x").append(3 * t + 2).append(" & x").append(3 * t + 3);
+		}
+		LogicalSentence sentence = new LogicalSentence(sb.toString());
+		AtomicReference<Object> result = new AtomicReference<>();
+		Thread thread = new Thread(null, () -> {
+			try {
+				result.set(sentence.countModels());
+			} catch (Throwable e) {
+				result.set(e);
+			}
+		}, "count", 256 * 1024);
+		thread.start();
+		thread.join();
+		if (result.get() instanceof Throwable) {
+			throw new AssertionError("counting failed", (Throwable) result.get());
+		}
+		int n = 3 * terms + 1;
+		BigInteger falsified = BigInteger.valueOf(7).pow(terms);//x0 false and no term true
+		assertEquals(BigInteger.ONE.shiftLeft(n).subtract(falsified), result.get());
+	}
+}
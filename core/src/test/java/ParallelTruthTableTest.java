@@ -0,0 +1,100 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * truth tables split across a pool, and the checks on sentences with too many variables for a truth
+ * table, where the number of words used to overflow and the checks have to go to the SAT solver instead
+ */
+public class ParallelTruthTableTest {
+
+	/**
+	 * @return v0 op v1 op ... with n variables
+	 */
+	static String chain(String op, int n) {
+		StringBuilder sb = new StringBuilder("v0");
+		for (int i = 1; i < n; i++) {
+			sb.append(' ').append(op).append(" v").append(i);
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void parallelTruthTableAgrees() {
+		Random random = new Random(14);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (int i = 0; i < 10; i++) {
+				RandomSentences.Node node;
+				LogicalSentence sentence;
+				do {
+					node = RandomSentences.random(random, 17, 8);
+					sentence = new LogicalSentence(node.toString());
+				} while (sentence.getNumOfDistinctVariablesInSentence() < 16);//small tables aren't split across the pool
+				boolean[] truth = RandomSentences.truth(node, sentence);
+				long[] table = sentence.truthTable(pool);
+				boolean any = false;
+				boolean all = true;
+				for (int row = 0; row < truth.length; row++) {
+					assertEquals(node + " row " + row, truth[row], ((table[row >>> 6] >>> (row & 63)) & 1) != 0);
+					any |= truth[row];
+					all &= truth[row];
+				}
+				assertEquals(node.toString(), any, sentence.satisfiable(pool));
+				assertEquals(node.toString(), all, sentence.valid(pool));
+				assertEquals(node.toString(), any && !all, sentence.contingent(pool));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void poolChecksAboveTheTableLimit() {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			for (int n : new int[] {21, 37, 63, 64}) {
+				LogicalSentence or = new LogicalSentence(chain("|", n));
+				LogicalSentence and = new LogicalSentence(chain("&", n));
+				assertTrue(or.satisfiable(pool));
+				assertFalse(or.valid(pool));
+				assertTrue(or.contingent(pool));
+				assertTrue(and.satisfiable(pool));
+				assertFalse(and.valid(pool));
+				assertTrue(new LogicalSentence(chain("->", n)).satisfiable(pool));
+				assertFalse(new LogicalSentence(chain("^", n)).valid());
+				assertTrue(new LogicalSentence("(" + chain("|", n) + ") | ~v0").valid(pool));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void countsAboveTheTableLimit() {
+		assertEquals(1, new LogicalSentence(chain("&", 62)).getNumOfSatisfyingValues());
+		assertEquals(Long.MAX_VALUE, new LogicalSentence(chain("|", 63)).getNumOfSatisfyingValues());//2^63 - 1
+		assertEquals(BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE), new LogicalSentence(chain("|", 64)).countModels());
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void countTooBigForALong() {
+		new LogicalSentence(chain("|", 64)).getNumOfSatisfyingValues();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void truthTableTooBigForAnArray() {
+		new LogicalSentence(chain("|", 37)).truthTable(null);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void outcomesTooBigForAnArray() {
+		new LogicalSentence(chain("|", 31)).allPossibleOutcomes();
+	}
+}
@@ -0,0 +1,82 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * evaluation on partial assignments against strong Kleene evaluation of the tree
+ */
+public class PartialEvaluationTest {
+	private static final int SENTENCES = 200;
+
+	/**
+	 * checks both partial evaluators on one assignment
+	 * @param assigned - bits of the assigned variables, packed like the rows
+	 * @param bits - values of the assigned variables
+	 */
+	private static void check(RandomSentences.Node node, LogicalSentence sentence, long assigned, long bits) {
+		String[] variables = sentence.getDistinctVariables();
+		int n = variables.length;
+		HashMap<String,Integer> values = new HashMap<>();
+		for (int k = 0; k < n; k++) {
+			long bit = 1L << (n - 1 - k);
+			if ((assigned & bit) != 0) {
+				values.put(variables[k], (bits & bit) != 0 ? 1 : 0);
+			}
+		}
+		int expected = node.kleene(values);
+		assertEquals(node + " " + values, expected, sentence.evaluatePartial(values).toInt());
+		assertEquals(node + " " + values, expected, sentence.evaluatePartial(bits, assigned).toInt());
+	}
+
+	@Test
+	public void partialEvaluationIsStrongKleene() {
+		Random random = new Random(17);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 5, 5);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			int n = sentence.getNumOfDistinctVariablesInSentence();
+			for (long assigned = 0; assigned < 1L << n; assigned++) {
+				for (long bits = assigned; ; bits = (bits - 1) & assigned) {//every assignment of the assigned variables
+					check(node, sentence, assigned, bits);
+					if (bits == 0) {
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * deep sentences, most with more than 64 distinct subformulas, which don't fit the registers in a long
+	 */
+	@Test
+	public void largeSentencesAreStrongKleene() {
+		Random random = new Random(23);
+		for (int i = 0; i < 40; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 8, 10);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			int n = sentence.getNumOfDistinctVariablesInSentence();
+			for (int s = 0; s < 200; s++) {
+				long assigned = random.nextLong() & ((1L << n) - 1);
+				check(node, sentence, assigned, random.nextLong() & assigned);
+			}
+		}
+	}
+
+	@Test
+	public void unassignedVariablesAreUndetermined() {
+		LogicalSentence sentence = new LogicalSentence("(a | b) & ~c");
+		HashMap<String,Integer> values = new HashMap<>();
+		assertEquals(ThreeValuedVariable.UNDETERMINED, sentence.evaluatePartial(values).toInt());
+		values.put("c", 1);
+		assertEquals(ThreeValuedVariable.FALSE, sentence.evaluatePartial(values).toInt());//decided without a or b
+		values.put("c", 0);
+		values.put("b", null);
+		assertEquals(ThreeValuedVariable.UNDETERMINED, sentence.evaluatePartial(values).toInt());
+		values.put("a", 1);
+		assertEquals(ThreeValuedVariable.TRUE, sentence.evaluatePartial(values).toInt());
+	}
+}
@@ -0,0 +1,184 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * random sentences for the tests, kept as a tree of their own that is evaluated directly so the
+ * engines are checked against a brute force truth table that shares no code with them
+ */
+final class RandomSentences {
+	static final String[] OPERATORS = {"&", "|", "^", "->", "<->"};
+
+	private RandomSentences() {
+	}
+
+	/**
+	 * a sentence as an operator tree: a variable, a constant, ~ with only left, or a binary operator
+	 */
+	static final class Node {
+		final String op;//variable name, "1", "0", "~" or one of OPERATORS
+		final Node left;
+		final Node right;
+
+		Node(String op, Node left, Node right) {
+			this.op = op;
+			this.left = left;
+			this.right = right;
+		}
+
+		boolean isLeaf() {
+			return left == null;
+		}
+
+		/**
+		 * @param values - 0/1 value of every variable in the tree
+		 */
+		boolean evaluate(HashMap<String,Integer> values) {
+			return kleene(values) > 0;
+		}
+
+		/**
+		 * strong Kleene value on a partial assignment
+		 * @param values - 0/1 values of the assigned variables, the others are missing
+		 * @return 1 true, 0 undetermined, -1 false
+		 */
+		int kleene(HashMap<String,Integer> values) {
+			if (isLeaf()) {
+				if (op.equals("1") || op.equals("0")) {
+					return op.equals("1") ? 1 : -1;
+				}
+				Integer value = values.get(op);
+				return value == null ? 0 : value == 1 ? 1 : -1;
+			}
+			int a = left.kleene(values);
+			if (op.equals("~")) {
+				return -a;
+			}
+			int b = right.kleene(values);
+			switch (op) {
+			case "&":
+				return Math.min(a, b);
+			case "|":
+				return Math.max(a, b);
+			case "^":
+				return -a * b;
+			case "->":
+				return Math.max(-a, b);
+			default:
+				return a * b;//<->
+			}
+		}
+
+		void collectVariables(TreeSet<String> names) {
+			if (isLeaf()) {
+				if (!op.equals("1") && !op.equals("0")) {
+					names.add(op);
+				}
+			} else {
+				left.collectVariables(names);
+				if (right != null) {
+					right.collectVariables(names);
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			if (isLeaf()) {
+				return op;
+			}
+			if (right == null) {
+				return "~(" + left + ")";
+			}
+			return "(" + left + " " + op + " " + right + ")";
+		}
+	}
+
+	/**
+	 * @param random - source of the choices
+	 * @param numOfVariables - variables are named v0 up to this many
+	 * @param depth - maximum depth of the tree
+	 * @return a random sentence
+	 */
+	static Node random(Random random, int numOfVariables, int depth) {
+		if (depth == 0 || random.nextInt(4) == 0) {
+			if (random.nextInt(20) == 0) {
+				return new Node(random.nextBoolean() ? "1" : "0", null, null);
+			}
+			return new Node("v" + random.nextInt(numOfVariables), null, null);
+		}
+		if (random.nextInt(5) == 0) {
+			return new Node("~", random(random, numOfVariables, depth - 1), null);
+		}
+		String op = OPERATORS[random.nextInt(OPERATORS.length)];
+		return new Node(op, random(random, numOfVariables, depth - 1), random(random, numOfVariables, depth - 1));
+	}
+
+	/**
+	 * @return distinct variables of the trees, sorted
+	 */
+	static String[] variables(Node... nodes) {
+		TreeSet<String> names = new TreeSet<>();
+		for (Node n : nodes) {
+			n.collectVariables(names);
+		}
+		return names.toArray(new String[0]);
+	}
+
+	/**
+	 * @param names - variables to assign
+	 * @return every assignment of 0/1 to the variables, 2^names.length of them
+	 */
+	static ArrayList<HashMap<String,Integer>> assignments(String[] names) {
+		ArrayList<HashMap<String,Integer>> all = new ArrayList<>();
+		for (int bits = 0; bits < 1 << names.length; bits++) {
+			HashMap<String,Integer> values = new HashMap<>();
+			for (int i = 0; i < names.length; i++) {
+				values.put(names[i], (bits >>> i) & 1);
+			}
+			all.add(values);
+		}
+		return all;
+	}
+
+	/**
+	 * @param variables - distinct variables of a sentence, in slot order
+	 * @param values - value of each of them
+	 * @return the assignment packed the way LogicalExpression.evaluate(long) takes it
+	 */
+	static long row(String[] variables, HashMap<String,Integer> values) {
+		long row = 0;
+		for (int k = 0; k < variables.length; k++) {
+			if (values.get(variables[k]) == 1) {
+				row |= 1L << (variables.length - 1 - k);
+			}
+		}
+		return row;
+	}
+
+	/**
+	 * @param sentence - the tree parsed as a sentence
+	 * @return value of the tree on every row of the sentence's variables, packed the way evaluate(long) takes them
+	 */
+	static boolean[] truth(Node node, LogicalSentence sentence) {
+		boolean[] truth = new boolean[1 << sentence.getNumOfDistinctVariablesInSentence()];
+		for (int row = 0; row < truth.length; row++) {
+			truth[row] = node.evaluate(sentence.toAssignment(row));
+		}
+		return truth;
+	}
+
+	/**
+	 * @return number of assignments to the tree's variables that satisfy it
+	 */
+	static long countModels(Node node) {
+		long count = 0;
+		for (HashMap<String,Integer> values : assignments(variables(node))) {
+			if (node.evaluate(values)) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
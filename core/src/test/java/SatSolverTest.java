@@ -0,0 +1,74 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * the CDCL solver on the Tseitin encoding, against brute force truth tables
+ */
+public class SatSolverTest {
+	private static final int SENTENCES = 300;
+
+	@Test
+	public void solverAgreesWithTruthTable() {
+		Random random = new Random(1);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 6, 5);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			SatSolver solver = new SatSolver();
+			HashMap<String,Integer> variables = new HashMap<>();
+			int root = sentence.encodeInto(solver, variables);
+			long count = RandomSentences.countModels(node);
+			long rows = 1L << RandomSentences.variables(node).length;
+
+			assertEquals(node.toString(), count > 0, solver.solve(root));
+			if (count > 0) {
+				HashMap<String,Integer> model = new HashMap<>();
+				for (String name : variables.keySet()) {
+					model.put(name, solver.getModelValue(variables.get(name)) ? 1 : 0);
+				}
+				assertTrue(node.toString(), node.evaluate(model));
+			}
+			assertEquals(node.toString(), count < rows, solver.solve(-root));//same solver, other assumption
+		}
+	}
+
+	@Test
+	public void findModelSatisfiesTheSentence() {
+		Random random = new Random(2);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 6, 5);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			HashMap<String,Integer> model = sentence.findModel();
+			if (RandomSentences.countModels(node) == 0) {
+				assertNull(node.toString(), model);
+			} else {
+				assertNotNull(node.toString(), model);
+				assertTrue(node.toString(), node.evaluate(model));
+			}
+		}
+	}
+
+	@Test
+	public void wideSentencesGoToTheSolver() {
+		StringBuilder clause = new StringBuilder("v0");
+		StringBuilder negations = new StringBuilder();
+		for (int i = 1; i < 30; i++) {
+			clause.append(" | v").append(i);
+			negations.append(" & ~v").append(i);
+		}
+		LogicalSentence open = new LogicalSentence("(" + clause + ")" + negations);
+		LogicalSentence closed = new LogicalSentence("(" + clause + ")" + negations + " & ~v0");
+		assertTrue(open.satisfiable());
+		assertEquals(Integer.valueOf(1), open.findModel().get("v0"));
+		assertFalse(open.valid());
+		assertFalse(closed.satisfiable());
+		assertNull(closed.findModel());
+	}
+}
@@ -0,0 +1,37 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * valid, satisfiable and contingent, which stop at the first row that decides them, against brute force truth tables
+ */
+public class SatisfiabilityTest {
+	private static final int SENTENCES = 300;
+
+	@Test
+	public void validSatisfiableContingent() {
+		Random random = new Random(3);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 9, 5);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			long count = RandomSentences.countModels(node);
+			long rows = 1L << RandomSentences.variables(node).length;
+			assertEquals(node.toString(), count == rows, sentence.valid());
+			assertEquals(node.toString(), count > 0, sentence.satisfiable());
+			assertEquals(node.toString(), count > 0 && count < rows, sentence.contingent());
+		}
+	}
+
+	@Test
+	public void decidedByTheLastRow() {
+		assertFalse(new LogicalSentence("a & b & c & d & e & f & g & h").valid());
+		assertTrue(new LogicalSentence("a & b & c & d & e & f & g & h").satisfiable());//only the last row
+		assertTrue(new LogicalSentence("a | b | c | d | e | f | g | h").contingent());//only the first row is false
+		assertFalse(new LogicalSentence("a & ~a").satisfiable());
+		assertTrue(new LogicalSentence("a | ~a").valid());
+	}
+}
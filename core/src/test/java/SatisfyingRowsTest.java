@@ -0,0 +1,66 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * the lazy iterator and stream over the satisfying rows against brute force truth tables
+ */
+public class SatisfyingRowsTest {
+	private static final int SENTENCES = 200;
+
+	@Test
+	public void rowsInIncreasingOrder() {
+		Random random = new Random(19);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 9, 6);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			boolean[] truth = RandomSentences.truth(node, sentence);
+			ArrayList<Long> expected = new ArrayList<>();
+			for (int row = 0; row < truth.length; row++) {
+				if (truth[row]) {
+					expected.add((long) row);
+				}
+			}
+			PrimitiveIterator.OfLong rows = sentence.satisfyingRows();
+			for (long row : expected) {
+				assertEquals(node.toString(), row, rows.nextLong());
+			}
+			assertFalse(node.toString(), rows.hasNext());
+			assertArrayEquals(node.toString(), expected.stream().mapToLong(Long::longValue).toArray(), sentence.satisfyingStream().toArray());
+			HashMap<String,Integer>[] values = sentence.getSatisfyingValues();
+			assertEquals(node.toString(), expected.size(), values.length);
+			for (int k = 0; k < values.length; k++) {
+				assertEquals(node.toString(), sentence.toAssignment(expected.get(k)), values[k]);
+			}
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void firstRowsOfManyVariables() {
+		LogicalSentence or = new LogicalSentence(ParallelTruthTableTest.chain("|", 64));
+		assertEquals(1L, or.satisfyingRows().nextLong());//row 0 is all false, row 1 has only v63 true
+		assertArrayEquals(new long[] {1, 2, 3}, or.satisfyingStream().limit(3).toArray());
+		assertEquals(1, or.toAssignment(1L << 63).get("v0").intValue());//v0 is the top bit
+		assertEquals(0, or.toAssignment(1L).get("v0").intValue());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rowsTooBigForALong() {
+		new LogicalSentence(ParallelTruthTableTest.chain("|", 65)).satisfyingRows();
+	}
+
+	/**
+	 * 2^33 - 1 models used to be narrowed to an int, 2^32 + 3 of them would have quietly given 3 maps
+	 */
+	@Test(expected = IllegalStateException.class, timeout = 60000)
+	public void tooManyModelsForAnArray() {
+		new LogicalSentence(ParallelTruthTableTest.chain("|", 33)).getSatisfyingValues();
+	}
+}
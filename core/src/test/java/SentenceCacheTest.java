@@ -0,0 +1,97 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * lookups, eviction and normalization of the sentence cache
+ */
+public class SentenceCacheTest {
+
+	@Test
+	public void hitsAndMisses() {
+		SentenceCache cache = new SentenceCache(100);
+		CachedSentence first = cache.get("a & b");
+		assertSame(first, cache.get("a & b"));
+		cache.get("a | b");
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertEquals(2, cache.size());
+		assertEquals(1.0 / 3, cache.getHitRate(), 1e-9);
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertNotSame(first, cache.get("a & b"));
+		assertEquals(3, cache.getMisses());
+	}
+
+	@Test
+	public void whitespaceVariantsAreOneEntry() {
+		SentenceCache cache = new SentenceCache(100);
+		CachedSentence first = cache.get("(a&b)->~c");
+		assertSame(first, cache.get(" ( a & b ) -> ~ c "));
+		assertSame(first, cache.get("(a\t&\tb)\n->~c"));
+		assertEquals("( a & b ) -> ~ c", first.getText());
+		assertEquals(1, cache.size());
+		assertEquals("a <-> b ^ 1", SentenceCache.normalize("a<->b^1"));
+		assertEquals("x-y <z", SentenceCache.normalize("  x-y   <z "));//- and < that don't start an operator are part of the identifier
+	}
+
+	@Test
+	public void normalizeDoesNotInternVariables() {
+		int before = SymbolTable.size();
+		for (int i = 0; i < 1000; i++) {
+			SentenceCache.normalize("never_parsed_" + i + " & other_" + i);
+		}
+		assertEquals(before, SymbolTable.size());
+	}
+
+	@Test
+	public void leastRecentlyUsedIsEvicted() {
+		SentenceCache cache = new SentenceCache(1);
+		CachedSentence a = cache.get("a");
+		cache.get("b");//evicts a
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertNotSame(a, cache.get("a"));
+		assertEquals(3, cache.getMisses());
+
+		SentenceCache three = new SentenceCache(3);//small enough for one segment, so one order over all of it
+		CachedSentence p = three.get("p");
+		CachedSentence q = three.get("q");
+		three.get("r");
+		assertSame(p, three.get("p"));//p is now more recent than q
+		three.get("s");//evicts q
+		assertSame(p, three.get("p"));
+		assertEquals(3, three.size());
+		assertNotSame(q, three.get("q"));
+		assertEquals(2, three.getEvictions());
+	}
+
+	@Test
+	public void neverHoldsMoreThanTheMaximumSize() {
+		Random random = new Random(21);
+		for (int maximumSize : new int[] {1, 2, 3, 5, 15, 16, 17, 40}) {
+			SentenceCache cache = new SentenceCache(maximumSize);
+			for (int i = 0; i < 500; i++) {
+				cache.get("s" + random.nextInt(200) + " | t");
+				assertTrue(maximumSize + ": " + cache.size(), cache.size() <= maximumSize);
+			}
+			assertEquals(cache.getMisses() - cache.size(), cache.getEvictions());
+		}
+	}
+
+	@Test
+	public void cachedSentenceAnswersLikeTheSentence() {
+		SentenceCache cache = new SentenceCache(10);
+		CachedSentence cached = cache.get("a -> (b | ~a)");
+		LogicalSentence sentence = new LogicalSentence("a -> (b | ~a)");
+		assertArrayEquals(sentence.truthTable(), cached.truthTable());
+		assertEquals(sentence.valid(), cached.valid());
+		assertEquals(sentence.satisfiable(), cached.satisfiable());
+	}
+}
@@ -0,0 +1,75 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * the short circuit tree, as built and after reordering, against brute force truth tables
+ */
+public class ShortCircuitEvaluatorTest {
+	private static final int SENTENCES = 200;
+
+	/**
+	 * @return the row unpacked into a value per slot
+	 */
+	private static boolean[] unpack(long row, int n) {
+		boolean[] assignment = new boolean[n];
+		for (int k = 0; k < n; k++) {
+			assignment[k] = ((row >>> (n - 1 - k)) & 1) != 0;
+		}
+		return assignment;
+	}
+
+	@Test
+	public void shortCircuitEvaluatorAgrees() {
+		Random random = new Random(16);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 7, 6);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			boolean[] truth = RandomSentences.truth(node, sentence);
+			int n = sentence.getNumOfDistinctVariablesInSentence();
+			ShortCircuitEvaluator evaluator = sentence.shortCircuitEvaluator();
+			ShortCircuitEvaluator reordered = evaluator.reorder();
+			long[] samples = new long[64];
+			for (int s = 0; s < samples.length; s++) {
+				samples[s] = random.nextInt(truth.length);
+			}
+			ShortCircuitEvaluator sampled = evaluator.reorder(samples);
+			for (int row = 0; row < truth.length; row++) {
+				HashMap<String,Integer> values = sentence.toAssignment(row);
+				assertEquals(node.toString(), truth[row], evaluator.evaluate(row));
+				assertEquals(node.toString(), truth[row], evaluator.evaluate(values));
+				assertEquals(node.toString(), truth[row], evaluator.evaluate(unpack(row, n)));
+				assertEquals(node.toString(), truth[row], reordered.evaluate(row));
+				assertEquals(node.toString(), truth[row], sampled.evaluate(row));
+			}
+		}
+	}
+
+	/**
+	 * a chain nested on one side, deeper than the stack evaluate() starts with
+	 */
+	@Test
+	public void deepSentence() {
+		int depth = 5000;
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < depth; i++) {
+			sb.append("(v").append(i % 10).append(i % 2 == 0 ? " & " : " | ");
+		}
+		sb.append("v0");
+		for (int i = 0; i < depth; i++) {
+			sb.append(')');
+		}
+		LogicalSentence sentence = new LogicalSentence(sb.toString());
+		ShortCircuitEvaluator evaluator = sentence.shortCircuitEvaluator();
+		ShortCircuitEvaluator reordered = evaluator.reorder();
+		assertTrue(evaluator.getNumOfNodes() > 0);
+		for (long row = 0; row < 1L << sentence.getNumOfDistinctVariablesInSentence(); row++) {
+			assertEquals("row " + row, sentence.evaluate(row), evaluator.evaluate(row));
+			assertEquals("row " + row, sentence.evaluate(row), reordered.evaluate(row));
+		}
+	}
+}
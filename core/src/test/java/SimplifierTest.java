@@ -0,0 +1,46 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * simplified sentences against brute force truth tables of the originals
+ */
+public class SimplifierTest {
+	private static final int SENTENCES = 300;
+
+	@Test
+	public void simplifyKeepsTheTruthTable() {
+		Random random = new Random(11);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 5, 5);
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			Simplifier.Report report = sentence.simplify();
+			String[] left = sentence.getDistinctVariables();
+			for (HashMap<String,Integer> values : RandomSentences.assignments(RandomSentences.variables(node))) {
+				assertEquals(node + " => " + String.join(" ", sentence.getSentence()), node.evaluate(values), sentence.evaluate(values));
+				assertEquals(node.toString(), node.evaluate(values), sentence.evaluate(RandomSentences.row(left, values)));
+			}
+			for (String eliminated : report.getEliminatedVariables()) {
+				assertTrue(node.toString(), !Arrays.asList(left).contains(eliminated));
+			}
+			assertEquals(node.toString(), RandomSentences.variables(node).length,
+					left.length + report.getEliminatedVariables().length);
+		}
+	}
+
+	@Test
+	public void simplifiedSentenceIsEquivalent() {
+		Random random = new Random(12);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 5, 5);
+			LogicalSentence original = new LogicalSentence(node.toString());
+			LogicalSentence simplified = new LogicalSentence(node.toString(), true);
+			assertEquals(node.toString(), ThreeValuedVariable.TRUE, simplified.equivalent(original).toInt());
+		}
+	}
+}
@@ -0,0 +1,38 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * the register program and the packed truth tables against brute force truth tables
+ */
+public class TruthTableTest {
+	private static final int SENTENCES = 200;
+
+	@Test
+	public void truthTablesAgree() {
+		Random random = new Random(13);
+		for (int i = 0; i < SENTENCES; i++) {
+			RandomSentences.Node node = RandomSentences.random(random, 10, 6);//both sides of 6 variables, one word
+			LogicalSentence sentence = new LogicalSentence(node.toString());
+			boolean[] truth = RandomSentences.truth(node, sentence);
+			long[] table = sentence.truthTable();
+			boolean[] outcomes = sentence.allPossibleOutcomes();
+			for (int row = 0; row < truth.length; row++) {
+				assertEquals(node + " row " + row, truth[row], ((table[row >>> 6] >>> (row & 63)) & 1) != 0);
+				assertEquals(node + " row " + row, truth[row], outcomes[row]);
+				assertEquals(node + " row " + row, truth[row], sentence.evaluate(row));
+				assertEquals(node + " row " + row, truth[row], sentence.evaluate(sentence.toAssignment(row)));
+			}
+		}
+	}
+
+	@Test
+	public void unusedBitsOfTheLastWordAreClear() {
+		LogicalSentence sentence = new LogicalSentence("~a | b");
+		assertEquals(1, sentence.truthTable().length);
+		assertEquals(0b1011L, sentence.truthTable()[0]);//rows 0, 1 and 3, row 2 is a & ~b
+		assertEquals(3, sentence.getNumOfSatisfyingValues());
+	}
+}
@@ -0,0 +1,471 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * analyzes a file of sentences without reading all of it at once, for files with millions of lines
+ * each line holds one sentence, or two sentences separated by a tab. Lines are read in chunks, the chunks
+ * are analyzed by a fixed number of workers and written back in input order. A pair with few enough
+ * variables between them is decided on one truth table over all of them, others go to the SAT solver. At most a fixed number of
+ * chunks are read but not yet written, past that the reader waits for the writer (backpressure)
+ *
+ * every line that isn't blank gives one output line: its line number, then V, C or U for each sentence
+ * (valid, contingent, unsatisfiable), then for a pair T or F for whether the first entails the second,
+ * the second entails the first and they are equivalent, separated by tabs (line 12 holding a contingent
+ * sentence that entails another contingent sentence gives 12, C, C and TFF).
+ * Malformed lines are reported on the error stream and skipped
+ */
+public class BatchMode {
+	public static final int DEFAULT_CHUNK_SIZE = 1024;//lines a worker analyzes at a time
+	private static final int BUFFER_SIZE = 1 << 16;//bytes buffered by the reader and the writer
+	private static final int TABLE_MAX_VARIABLES = 20;//sentences with more variables are classified with the SAT solver
+	private static final int PAIR_TABLE_MAX_VARIABLES = 16;//pairs with more variables between them are compared with the SAT solver
+	private static final Future<Chunk> END = CompletableFuture.completedFuture(null);//queued after the last chunk
+
+	private final int parallelism;
+	private final int maxChunks;
+	private final int chunkSize;
+
+	/**
+	 * @param parallelism - number of worker threads
+	 */
+	public BatchMode(int parallelism) {
+		this(parallelism, 4 * parallelism, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param parallelism - number of worker threads
+	 * @param maxChunks - chunks that may be read but not yet written before the reader waits
+	 * @param chunkSize - lines a worker analyzes at a time
+	 */
+	public BatchMode(int parallelism, int maxChunks, int chunkSize) {
+		if (parallelism < 1 || maxChunks < 1 || chunkSize < 1) {
+			throw new IllegalArgumentException("parallelism, maxChunks and chunkSize must be positive");
+		}
+		this.parallelism = parallelism;
+		this.maxChunks = maxChunks;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @param input - file to read, UTF-8
+	 * @param output - file to write, replaced if it exists
+	 * @param errors - stream malformed lines are reported on
+	 * @return counts and time of the run
+	 */
+	public Summary run(Path input, Path output, PrintStream errors) throws IOException {
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(Files.newInputStream(input), StandardCharsets.UTF_8), BUFFER_SIZE);
+				Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(output), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+			return run(in, out, errors);
+		}
+	}
+
+	/**
+	 * @param in - lines to analyze
+	 * @param out - where the results are written, flushed but not closed
+	 * @param errors - stream malformed lines are reported on
+	 * @return counts and time of the run
+	 */
+	public Summary run(BufferedReader in, Writer out, PrintStream errors) throws IOException {
+		long start = System.nanoTime();
+		Summary summary = new Summary();
+		BlockingQueue<Future<Chunk>> pending = new ArrayBlockingQueue<>(maxChunks);//chunks in input order, put() blocks when it is full
+		ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+		OrderedWriter writer = new OrderedWriter(pending, out, errors, summary);
+		Thread writerThread = new Thread(writer, "BatchMode writer");
+		writerThread.setDaemon(true);//never keeps the JVM alive on its own
+		writerThread.start();
+		boolean ended = false;//END was queued, so the writer stops once it has written everything
+		try {
+			long lineNumber = 1;
+			String[] lines = new String[chunkSize];
+			int size = 0;
+			String line;
+			while (writer.failure == null && (line = in.readLine()) != null) {
+				lines[size++] = line;
+				if (size == chunkSize) {
+					Chunk chunk = new Chunk(lineNumber, lines, size);
+					pending.put(workers.submit(chunk));
+					lineNumber += size;
+					lines = new String[chunkSize];
+					size = 0;
+				}
+			}
+			if (size > 0) {
+				Chunk chunk = new Chunk(lineNumber, lines, size);
+				pending.put(workers.submit(chunk));
+			}
+			pending.put(END);
+			ended = true;
+			writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while reading");
+		} finally {
+			if (!ended) {
+				writerThread.interrupt();//reading failed, the writer may be waiting on a chunk or for END
+			}
+			workers.shutdownNow();
+			joinQuietly(writerThread);
+		}
+		if (writer.failure != null) {
+			throw writer.failure;
+		}
+		out.flush();
+		summary.nanos = System.nanoTime() - start;
+		return summary;
+	}
+
+	/**
+	 * waits for a thread to end, keeping the interrupt for the caller if it is interrupted meanwhile
+	 */
+	private static void joinQuietly(Thread thread) {
+		boolean interrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+				thread.interrupt();
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * runs a batch from the command line: [-t threads] [-q chunks] [-c lines] input [output]
+	 * a file name of - is standard input or output, output defaults to standard output. The summary goes to standard error
+	 * @param args - command line arguments
+	 */
+	public static void main(String[] args) throws IOException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		int chunks = -1;
+		int chunkSize = DEFAULT_CHUNK_SIZE;
+		String input;
+		String output = "-";
+		BatchMode batch;
+		try {
+			int i = 0;
+			for (; i < args.length && args[i].startsWith("-") && args[i].length() > 1; i += 2) {
+				if (i + 1 == args.length) {
+					throw new IllegalArgumentException("missing value of " + args[i]);
+				}
+				int value = Integer.parseInt(args[i + 1]);
+				if (args[i].equals("-t")) {
+					threads = value;
+				} else if (args[i].equals("-q")) {
+					chunks = value;
+				} else if (args[i].equals("-c")) {
+					chunkSize = value;
+				} else {
+					throw new IllegalArgumentException("unknown option " + args[i]);
+				}
+			}
+			if (i == args.length || args.length - i > 2) {
+				throw new IllegalArgumentException("expected an input file and at most one output file");
+			}
+			input = args[i];
+			if (i + 1 < args.length) {
+				output = args[i + 1];
+			}
+			batch = new BatchMode(threads, chunks > 0 ? chunks : 4 * threads, chunkSize);
+		} catch (IllegalArgumentException e) {//NumberFormatException is an IllegalArgumentException
+			System.err.println(e.getMessage());
+			System.err.println("usage: [-t threads] [-q chunks in flight] [-c lines per chunk] input|- [output|-]");
+			return;
+		}
+		BufferedReader in = new BufferedReader(new InputStreamReader(input.equals("-") ? System.in
+				: Files.newInputStream(Paths.get(input)), StandardCharsets.UTF_8), BUFFER_SIZE);
+		Writer out = new BufferedWriter(new OutputStreamWriter(output.equals("-") ? System.out
+				: Files.newOutputStream(Paths.get(output)), StandardCharsets.UTF_8), BUFFER_SIZE);
+		try {
+			Summary summary = batch.run(in, out, System.err);
+			System.err.println(summary);
+		} finally {
+			in.close();
+			out.close();
+		}
+	}
+
+	/**
+	 * @return V, C or U for valid, contingent or unsatisfiable
+	 */
+	private static char classify(LogicalSentence sentence) {
+		if (sentence.getNumOfDistinctVariablesInSentence() > TABLE_MAX_VARIABLES) {
+			return !sentence.satisfiable() ? 'U' : sentence.valid() ? 'V' : 'C';//SAT solver
+		}
+		long[] table = sentence.truthTable(null);//the workers are the parallelism, so stay on this thread
+		long count = 0;
+		for (long word : table) {
+			count += Long.bitCount(word);
+		}
+		return count == 0 ? 'U' : count == 1L << sentence.getNumOfDistinctVariablesInSentence() ? 'V' : 'C';
+	}
+
+	/**
+	 * @param sentence - sentence to evaluate
+	 * @param index - position of each variable in the shared table
+	 * @param columns - value of each variable across the shared table, by position
+	 * @param rows - rows of the shared table
+	 * @return the sentence on each row of the shared table
+	 */
+	private static long[] tableOver(LogicalSentence sentence, HashMap<String,Integer> index, long[][] columns, int rows) {
+		String[] variables = sentence.getDistinctVariables();
+		long[][] own = new long[variables.length][];
+		for (int s = 0; s < variables.length; s++) {
+			own[s] = columns[index.get(variables[s])];
+		}
+		return sentence.evaluateBatch(own, rows);
+	}
+
+	/**
+	 * @return whether a entails b, decided from the classes when they are enough
+	 */
+	private static boolean entails(LogicalSentence a, char classOfA, LogicalSentence b, char classOfB) {
+		if (classOfA == 'U' || classOfB == 'V') {
+			return true;
+		}
+		if (classOfA == 'V' || classOfB == 'U') {
+			return false;//a has a model, and not all of a's models are b's
+		}
+		return a.entails(b).isTrue();
+	}
+
+	/**
+	 * consecutive lines of the input, analyzed by one worker
+	 */
+	private static final class Chunk implements Callable<Chunk> {
+		final long firstLine;
+		final String[] lines;
+		final int size;
+		final StringBuilder results = new StringBuilder();
+		final StringBuilder errors = new StringBuilder();
+		long sentences;
+		long pairs;
+		long malformed;
+
+		Chunk(long firstLine, String[] lines, int size) {
+			this.firstLine = firstLine;
+			this.lines = lines;
+			this.size = size;
+		}
+
+		@Override
+		public Chunk call() {
+			for (int i = 0; i < size; i++) {
+				String line = lines[i];
+				lines[i] = null;//the text isn't needed once the line is analyzed
+				if (!line.trim().isEmpty()) {
+					analyze(firstLine + i, line);
+				}
+			}
+			return this;
+		}
+
+		private void analyze(long lineNumber, String line) {
+			int tab = line.indexOf('\t');
+			if (tab != -1 && line.indexOf('\t', tab + 1) != -1) {
+				malformed(lineNumber, "more than two sentences");
+				return;
+			}
+			LogicalSentence first;
+			LogicalSentence second = null;
+			try {
+				first = new LogicalSentence(tab == -1 ? line : line.substring(0, tab));
+				if (tab != -1) {
+					second = new LogicalSentence(line.substring(tab + 1));
+				}
+			} catch (IllegalArgumentException e) {
+				malformed(lineNumber, e.getMessage());
+				return;
+			}
+			if (first.getExpression() == null || (second != null && second.getExpression() == null)) {
+				malformed(lineNumber, "User input invalid");
+				return;
+			}
+			results.append(lineNumber).append('\t');
+			if (second == null) {
+				results.append(classify(first));
+				sentences++;
+			} else {
+				analyzePair(first, second);
+				pairs++;
+			}
+			results.append('\n');
+		}
+
+		/**
+		 * small pairs are decided on one truth table over the variables of both, the rest with the SAT solver
+		 */
+		private void analyzePair(LogicalSentence first, LogicalSentence second) {
+			HashMap<String,Integer> index = new HashMap<>();//position of each variable of either sentence
+			for (String v : first.getDistinctVariables()) {
+				index.putIfAbsent(v, index.size());
+			}
+			for (String v : second.getDistinctVariables()) {
+				index.putIfAbsent(v, index.size());
+			}
+			char classOfFirst;
+			char classOfSecond;
+			boolean forward;
+			boolean backward;
+			if (index.size() <= PAIR_TABLE_MAX_VARIABLES) {
+				int n = index.size();
+				long[][] columns = new long[n][(int) (((1L << n) + 63) >>> 6)];//value of each variable in each row of the shared table
+				for (int k = 0; k < n; k++) {
+					for (int w = 0; w < columns[k].length; w++) {
+						columns[k][w] = LogicalSentence.rowPattern(n - 1 - k, w);
+					}
+				}
+				long[] a = tableOver(first, index, columns, 1 << n);
+				long[] b = tableOver(second, index, columns, 1 << n);
+				long countOfA = 0;
+				long countOfB = 0;
+				forward = true;
+				backward = true;
+				for (int w = 0; w < a.length; w++) {//bits past the last row are 0 in both
+					countOfA += Long.bitCount(a[w]);
+					countOfB += Long.bitCount(b[w]);
+					forward &= (a[w] & ~b[w]) == 0;
+					backward &= (b[w] & ~a[w]) == 0;
+				}
+				classOfFirst = countOfA == 0 ? 'U' : countOfA == 1L << n ? 'V' : 'C';
+				classOfSecond = countOfB == 0 ? 'U' : countOfB == 1L << n ? 'V' : 'C';
+			} else {
+				classOfFirst = classify(first);
+				classOfSecond = classify(second);
+				forward = entails(first, classOfFirst, second, classOfSecond);
+				backward = entails(second, classOfSecond, first, classOfFirst);
+			}
+			results.append(classOfFirst).append('\t').append(classOfSecond).append('\t')
+					.append(forward ? 'T' : 'F').append(backward ? 'T' : 'F').append(forward && backward ? 'T' : 'F');
+		}
+
+		private void malformed(long lineNumber, String reason) {
+			errors.append("line ").append(lineNumber).append(": ").append(reason).append(System.lineSeparator());
+			malformed++;
+		}
+	}
+
+	/**
+	 * takes the chunks in input order as they finish and writes them out
+	 * after a failure it keeps taking chunks, so the reader never waits on a full queue, but drops them
+	 */
+	private static final class OrderedWriter implements Runnable {
+		private final BlockingQueue<Future<Chunk>> pending;
+		private final Writer out;
+		private final PrintStream errors;
+		private final Summary summary;
+		volatile IOException failure;
+
+		OrderedWriter(BlockingQueue<Future<Chunk>> pending, Writer out, PrintStream errors, Summary summary) {
+			this.pending = pending;
+			this.out = out;
+			this.errors = errors;
+			this.summary = summary;
+		}
+
+		@Override
+		public void run() {
+			try {
+				Future<Chunk> next;
+				while ((next = pending.take()) != END) {
+					if (failure != null) {
+						next.cancel(true);
+						continue;
+					}
+					try {
+						Chunk chunk = next.get();
+						out.append(chunk.results);
+						if (chunk.errors.length() > 0) {
+							errors.print(chunk.errors);
+						}
+						summary.lines += chunk.size;
+						summary.sentences += chunk.sentences;
+						summary.pairs += chunk.pairs;
+						summary.malformed += chunk.malformed;
+					} catch (IOException e) {
+						failure = e;
+					} catch (ExecutionException e) {
+						failure = new IOException("analyzing a chunk failed", e.getCause());
+					}
+				}
+			} catch (InterruptedException e) {
+				failure = new InterruptedIOException("interrupted while writing");
+			}
+		}
+	}
+
+	/**
+	 * what a run did
+	 */
+	public static final class Summary {
+		private long lines;
+		private long sentences;
+		private long pairs;
+		private long malformed;
+		private long nanos;
+
+		/**
+		 * @return lines read, including blank and malformed ones
+		 */
+		public long getLines() {
+			return lines;
+		}
+
+		/**
+		 * @return lines with a single sentence that were analyzed
+		 */
+		public long getSentences() {
+			return sentences;
+		}
+
+		/**
+		 * @return lines with a pair of sentences that were analyzed
+		 */
+		public long getPairs() {
+			return pairs;
+		}
+
+		/**
+		 * @return lines that were reported and skipped
+		 */
+		public long getMalformed() {
+			return malformed;
+		}
+
+		/**
+		 * @return time the run took in nanoseconds
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		@Override
+		public String toString() {
+			double seconds = nanos / 1e9;
+			return String.format("%d lines (%d pairs, %d sentences, %d malformed) in %.3f s, %.0f lines/s",
+					lines, pairs, sentences, malformed, seconds, seconds > 0 ? lines / seconds : 0.0);
+		}
+	}
+}
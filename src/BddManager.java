@@ -0,0 +1,253 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Reduced ordered binary decision diagrams. Nodes are hash-consed in a unique table, so two
+ * functions over the same manager are equal exactly when their node handles are equal.
+ * Nodes are kept in parallel int arrays (level, low, high) instead of one object per node, and are never freed
+ * a manager is not thread safe
+ */
+public class BddManager {
+	public static final int FALSE = 0;//terminal nodes
+	public static final int TRUE = 1;
+	private static final int TERMINAL_LEVEL = Integer.MAX_VALUE;//terminals come after every variable
+
+	private int[] level = new int[1024];//position of the node's variable in the order
+	private int[] low = new int[1024];//child when the variable is false
+	private int[] high = new int[1024];//child when the variable is true
+	private int[] next = new int[1024];//next node in the same unique table bucket
+	private int numNodes = 2;
+	private int[] buckets = new int[1024];//unique table, first node of each bucket (-1 if empty)
+	private int[] cacheF = new int[1 << 14];//ITE computed table, direct mapped
+	private int[] cacheG = new int[1 << 14];
+	private int[] cacheH = new int[1 << 14];
+	private int[] cacheResult = new int[1 << 14];
+	private HashMap<String,Integer> levelOf = new HashMap<>();//variable order
+	private ArrayList<String> names = new ArrayList<>();
+
+	/**
+	 * @param order - variables in the order they are tested from the root, variables that aren't
+	 * listed are put after these, in the order they are first used
+	 */
+	public BddManager(String... order) {
+		level[FALSE] = TERMINAL_LEVEL;
+		level[TRUE] = TERMINAL_LEVEL;
+		Arrays.fill(buckets, -1);
+		Arrays.fill(cacheF, -1);
+		for (int i = 0; i < order.length; i++) {
+			getLevel(order[i]);
+		}
+	}
+
+	/**
+	 * @param name - name of a variable
+	 * @return node of the function that is true when the variable is true
+	 */
+	public int variable(String name) {
+		return makeNode(getLevel(name), FALSE, TRUE);
+	}
+
+	/**
+	 * @param name - name of a variable
+	 * @return position of the variable in the order, variables not seen before go last
+	 */
+	public int getLevel(String name) {
+		Integer l = levelOf.get(name);
+		if (l == null) {
+			l = names.size();
+			levelOf.put(name, l);
+			names.add(name);
+		}
+		return l;
+	}
+
+	/**
+	 * @return variables in the order they are tested from the root
+	 */
+	public String[] getVariableOrder() {
+		return names.toArray(new String[names.size()]);
+	}
+
+	/**
+	 * @return node of ~f
+	 */
+	public int not(int f) {
+		return ite(f, FALSE, TRUE);
+	}
+
+	/**
+	 * @return node of f & g
+	 */
+	public int and(int f, int g) {
+		return ite(f, g, FALSE);
+	}
+
+	/**
+	 * @return node of f | g
+	 */
+	public int or(int f, int g) {
+		return ite(f, TRUE, g);
+	}
+
+	/**
+	 * @return node of f ^ g
+	 */
+	public int xor(int f, int g) {
+		return ite(f, not(g), g);
+	}
+
+	/**
+	 * @return node of f -> g
+	 */
+	public int implies(int f, int g) {
+		return ite(f, g, TRUE);
+	}
+
+	/**
+	 * @return node of f <-> g
+	 */
+	public int iff(int f, int g) {
+		return ite(f, g, not(g));
+	}
+
+	/**
+	 * if-then-else, the operation every other one is built from
+	 * @return node of (f & g) | (~f & h)
+	 */
+	public int ite(int f, int g, int h) {
+		if (f == TRUE) {
+			return g;
+		}
+		if (f == FALSE) {
+			return h;
+		}
+		if (g == h) {
+			return g;
+		}
+		if (g == TRUE && h == FALSE) {
+			return f;
+		}
+		int slot = (int) ((f * 12582917L + g * 4256249L + h * 741457L) & (cacheF.length - 1));
+		if (cacheF[slot] == f && cacheG[slot] == g && cacheH[slot] == h) {
+			return cacheResult[slot];
+		}
+		int top = Math.min(level[f], Math.min(level[g], level[h]));//split on the first variable of the three
+		int lowResult = ite(cofactor(f, top, false), cofactor(g, top, false), cofactor(h, top, false));
+		int highResult = ite(cofactor(f, top, true), cofactor(g, top, true), cofactor(h, top, true));
+		int result = makeNode(top, lowResult, highResult);
+		if (numNodes > 4 * cacheF.length) {
+			growCache();
+		}
+		slot = (int) ((f * 12582917L + g * 4256249L + h * 741457L) & (cacheF.length - 1));
+		cacheF[slot] = f;
+		cacheG[slot] = g;
+		cacheH[slot] = h;
+		cacheResult[slot] = result;
+		return result;
+	}
+
+	/**
+	 * @return whether every assignment satisfying f satisfies g
+	 */
+	public boolean entails(int f, int g) {
+		return and(f, not(g)) == FALSE;
+	}
+
+	/**
+	 * @param f - a node
+	 * @return level of the variable the node tests, Integer.MAX_VALUE for the terminals
+	 */
+	public int getNodeLevel(int f) {
+		return level[f];
+	}
+
+	/**
+	 * @param f - a node that isn't a terminal
+	 * @return child of the node when its variable is false
+	 */
+	public int getLow(int f) {
+		return low[f];
+	}
+
+	/**
+	 * @param f - a node that isn't a terminal
+	 * @return child of the node when its variable is true
+	 */
+	public int getHigh(int f) {
+		return high[f];
+	}
+
+	/**
+	 * @return number of nodes created by this manager, terminals included
+	 */
+	public int getNodeCount() {
+		return numNodes;
+	}
+
+	/**
+	 * @return f restricted to the variable at the given level having the given value
+	 */
+	private int cofactor(int f, int top, boolean value) {
+		if (level[f] != top) {
+			return f;//f doesn't depend on the variable at the top
+		}
+		return value ? high[f] : low[f];
+	}
+
+	/**
+	 * @return the node (l ? hi : lo), reusing an existing node if there is one
+	 */
+	private int makeNode(int l, int lo, int hi) {
+		if (lo == hi) {
+			return lo;//redundant test
+		}
+		int bucket = hash(l, lo, hi) & (buckets.length - 1);
+		for (int n = buckets[bucket]; n != -1; n = next[n]) {
+			if (level[n] == l && low[n] == lo && high[n] == hi) {
+				return n;
+			}
+		}
+		if (numNodes == level.length) {
+			int capacity = level.length * 2;
+			level = Arrays.copyOf(level, capacity);
+			low = Arrays.copyOf(low, capacity);
+			high = Arrays.copyOf(high, capacity);
+			next = Arrays.copyOf(next, capacity);
+			rehash(capacity);
+			bucket = hash(l, lo, hi) & (buckets.length - 1);
+		}
+		int n = numNodes++;
+		level[n] = l;
+		low[n] = lo;
+		high[n] = hi;
+		next[n] = buckets[bucket];
+		buckets[bucket] = n;
+		return n;
+	}
+
+	private static int hash(int l, int lo, int hi) {
+		int h = l * 31 + lo;
+		h = h * 1000003 + hi;
+		return h ^ (h >>> 16);
+	}
+
+	private void rehash(int capacity) {
+		buckets = new int[capacity];
+		Arrays.fill(buckets, -1);
+		for (int n = 2; n < numNodes; n++) {
+			int bucket = hash(level[n], low[n], high[n]) & (capacity - 1);
+			next[n] = buckets[bucket];
+			buckets[bucket] = n;
+		}
+	}
+
+	private void growCache() {
+		int capacity = cacheF.length * 2;
+		cacheF = new int[capacity];
+		cacheG = new int[capacity];
+		cacheH = new int[capacity];
+		cacheResult = new int[capacity];
+		Arrays.fill(cacheF, -1);
+	}
+}
@@ -0,0 +1,174 @@
+import java.util.BitSet;
+
+/**
+ * read only view of a parsed sentence handed out by SentenceCache, shared between threads
+ * the truth table, variable set and valid/satisfiable flags are worked out the first time they are
+ * asked for and kept, so every later caller gets them for free
+ */
+public final class CachedSentence {
+	private final String text;//normalized text the sentence was parsed from
+	private final LogicalSentence sentence;//never handed out, so it can't be changed
+	private final BitSet variableSet;
+	private volatile long[] truthTable;//null until first asked for
+	private volatile Boolean valid;
+	private volatile Boolean satisfiable;
+
+	/**
+	 * @param text - normalized text of the sentence, see SentenceCache.normalize()
+	 */
+	CachedSentence(String text) {
+		this.text = text;
+		this.sentence = new LogicalSentence(text);
+		this.variableSet = sentence.getVariableSet();
+	}
+
+	/**
+	 * @return normalized text of the sentence
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * @return the sentence in RPN
+	 */
+	public String[] getSentence() {
+		return sentence.getSentence().clone();
+	}
+
+	/**
+	 * @return the sentence as a node of the shared expression DAG
+	 */
+	public Expr getExpression() {
+		return sentence.getExpression();
+	}
+
+	/**
+	 * @return distinct variables in slot order
+	 */
+	public String[] getDistinctVariables() {
+		return sentence.getDistinctVariables();
+	}
+
+	/**
+	 * @return the distinct variables as SymbolTable ids
+	 */
+	public BitSet getVariableSet() {
+		return (BitSet) variableSet.clone();
+	}
+
+	/**
+	 * @return a new LogicalSentence of the same sentence, for callers that need to change it
+	 */
+	public LogicalSentence toLogicalSentence() {
+		return new LogicalSentence(text);
+	}
+
+	/**
+	 * @return the packed truth table, see LogicalExpression.truthTable()
+	 */
+	public long[] truthTable() {
+		long[] table = truthTable;
+		if (table == null) {
+			table = sentence.truthTable();
+			truthTable = table;//racing threads compute the same table, any of them can win
+		}
+		return table.clone();
+	}
+
+	/**
+	 * @return whether or not the sentence is valid
+	 */
+	public boolean valid() {
+		Boolean v = valid;
+		if (v == null) {
+			long[] table = truthTable;
+			v = table != null ? !hasRow(table, false) : sentence.valid();
+			valid = v;
+		}
+		return v;
+	}
+
+	/**
+	 * @return whether or not the sentence is satisfiable
+	 */
+	public boolean satisfiable() {
+		Boolean s = satisfiable;
+		if (s == null) {
+			long[] table = truthTable;
+			s = table != null ? hasRow(table, true) : sentence.satisfiable();
+			satisfiable = s;
+		}
+		return s;
+	}
+
+	/**
+	 * @return whether or not the sentence is contingent
+	 */
+	public boolean contingent() {
+		return satisfiable() && !valid();
+	}
+
+	/**
+	 * @param assignmentBits - packed assignment, see LogicalExpression.evaluate(long)
+	 * @return result of evaluation of the sentence
+	 */
+	public boolean evaluate(long assignmentBits) {
+		long[] table = truthTable;
+		if (table != null) {
+			return (table[(int) (assignmentBits >>> 6)] & (1L << assignmentBits)) != 0;
+		}
+		return sentence.evaluate(assignmentBits);
+	}
+
+	/**
+	 * @param assignment - value of each variable, indexed by slot
+	 * @return result of evaluation of the sentence
+	 */
+	public boolean evaluate(boolean[] assignment) {
+		return sentence.evaluate(assignment);
+	}
+
+	/**
+	 * @param columns - values of each variable in slot order, see LogicalExpression.evaluateBatch()
+	 * @param rows - number of assignments
+	 * @return result of each row, packed the same way as the columns
+	 */
+	public long[] evaluateBatch(long[][] columns, int rows) {
+		return sentence.evaluateBatch(columns, rows);
+	}
+
+	/**
+	 * @return whether this sentence entails the other one
+	 */
+	public ThreeValuedVariable entails(CachedSentence other) {
+		return sentence.entails(other.sentence);
+	}
+
+	/**
+	 * @return whether this sentence is equivalent to the other one
+	 */
+	public ThreeValuedVariable equivalent(CachedSentence other) {
+		return sentence.equivalent(other.sentence);
+	}
+
+	/**
+	 * @param table - packed truth table of the sentence
+	 * @param value - value to look for
+	 * @return whether some row of the table has that value
+	 */
+	private boolean hasRow(long[] table, boolean value) {
+		long mask = sentence.wordMask();
+		for (long word : table) {
+			if (((value ? word : ~word) & mask) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return text;
+	}
+}
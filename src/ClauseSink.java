@@ -0,0 +1,18 @@
+/**
+ * something clauses can be added to, like a SatSolver or a ModelCounter
+ * variables are numbered from 1 and a literal is a variable (true) or its negation (false), like DIMACS
+ */
+public interface ClauseSink {
+
+	/**
+	 * @return a new variable
+	 */
+	int newVariable();
+
+	/**
+	 * adds a clause, the disjunction of the literals
+	 * @param literals - literals of the clause
+	 * @return false if the clauses are now known to be unsatisfiable
+	 */
+	boolean addClause(int... literals);
+}
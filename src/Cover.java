@@ -0,0 +1,144 @@
+import java.util.HashMap;
+
+/**
+ * satisfying assignments of a sentence as a sum of products: a list of cubes, each one an & of some
+ * of the variables (or their negations), the sentence is true exactly when some cube is true
+ * variables a cube leaves out are don't-cares, so one cube stands for many rows
+ * a cube is two masks packed like the rows of LogicalExpression.evaluate(long), the k-th variable is
+ * bit (n - 1 - k): care has the bits of the variables in the cube, values has the bits of the ones that are true
+ */
+public final class Cover {
+	public static final int MAX_VARIABLES = 64;//one bit per variable in a long
+
+	private final String[] variables;
+	private final long[] care;
+	private final long[] values;
+
+	/**
+	 * @param variables - variables in slot order
+	 * @param care - care mask of each cube
+	 * @param values - values of each cube, only the bits in its care mask are set
+	 */
+	Cover(String[] variables, long[] care, long[] values) {
+		this.variables = variables;
+		this.care = care;
+		this.values = values;
+	}
+
+	/**
+	 * @return variables in slot order, the order of the bits of the masks
+	 */
+	public String[] getVariables() {
+		return variables.clone();
+	}
+
+	/**
+	 * @return number of cubes
+	 */
+	public int size() {
+		return care.length;
+	}
+
+	/**
+	 * @param i - index of a cube
+	 * @return bits of the variables the cube tests
+	 */
+	public long getCare(int i) {
+		return care[i];
+	}
+
+	/**
+	 * @param i - index of a cube
+	 * @return bits of the variables the cube needs to be true
+	 */
+	public long getValues(int i) {
+		return values[i];
+	}
+
+	/**
+	 * @param i - index of a cube
+	 * @return the cube as 1, 0 or - (don't-care) for each variable in slot order, e.g. 1-0
+	 */
+	public String getCube(int i) {
+		char[] cube = new char[variables.length];
+		for (int k = 0; k < cube.length; k++) {
+			long bit = 1L << (variables.length - 1 - k);
+			cube[k] = (care[i] & bit) == 0 ? '-' : (values[i] & bit) != 0 ? '1' : '0';
+		}
+		return new String(cube);
+	}
+
+	/**
+	 * @param i - index of a cube
+	 * @return values of the variables the cube tests, like getSatisfyingValues() but without the don't-cares
+	 */
+	public HashMap<String,Integer> getAssignment(int i) {
+		HashMap<String,Integer> assignment = new HashMap<>();
+		for (int k = 0; k < variables.length; k++) {
+			long bit = 1L << (variables.length - 1 - k);
+			if ((care[i] & bit) != 0) {
+				assignment.put(variables[k], (values[i] & bit) != 0 ? 1 : 0);
+			}
+		}
+		return assignment;
+	}
+
+	/**
+	 * @return number of literals over all the cubes
+	 */
+	public int getNumOfLiterals() {
+		int literals = 0;
+		for (long c : care) {
+			literals += Long.bitCount(c);
+		}
+		return literals;
+	}
+
+	/**
+	 * @param row - packed assignment, see LogicalExpression.evaluate(long)
+	 * @return whether some cube is true for the assignment, the same as evaluating the sentence
+	 */
+	public boolean contains(long row) {
+		for (int i = 0; i < care.length; i++) {
+			if (((row ^ values[i]) & care[i]) == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the cover as a sentence, e.g. (a & ~c) | b, 0 without cubes and 1 for a cube without literals
+	 */
+	@Override
+	public String toString() {
+		if (care.length == 0) {
+			return "0";
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < care.length; i++) {
+			if (i > 0) {
+				sb.append(" | ");
+			}
+			int literals = Long.bitCount(care[i]);
+			if (literals == 0) {
+				return "1";
+			}
+			if (literals > 1 && care.length > 1) {
+				sb.append('(');
+			}
+			boolean first = true;
+			for (int k = 0; k < variables.length; k++) {
+				long bit = 1L << (variables.length - 1 - k);
+				if ((care[i] & bit) != 0) {
+					sb.append(first ? "" : " & ").append((values[i] & bit) != 0 ? "" : "~").append(variables[k]);
+					first = false;
+				}
+			}
+			if (literals > 1 && care.length > 1) {
+				sb.append(')');
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,506 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.function.IntConsumer;
+
+/**
+ * two-level minimization, turns the satisfying rows of a sentence into a small Cover of prime implicants
+ * Quine-McCluskey merges the rows of the truth table into every prime implicant and picks a cover from
+ * them, so it is only used for few variables. The Espresso-style heuristic never lists the rows: it starts
+ * from an irredundant cover read off the sentence's BDD (Minato-Morreale), makes every cube prime (expand), drops cubes the
+ * others cover (irredundant), and then shrinks cubes (reduce) to expand them again in other directions,
+ * for as long as the cover keeps getting smaller
+ * cubes are {care, values} pairs packed like the ones of Cover
+ */
+public class CoverMinimizer {
+	private static final int MAX_PASSES = 16;//reduce, expand, irredundant rounds before settling for the best cover so far
+	private static final Comparator<long[]> BIGGEST_FIRST = Comparator.comparingInt((long[] c) -> Long.bitCount(c[0]));
+
+	private final BddManager manager;
+	private final int notF;//BDD of the rows that must stay uncovered
+	private final long[] bitOfLevel;//cube bit of the variable at each level of the BDD
+	private final int[] variableAt;//BDD of the variable at each level
+	private final HashMap<Long,Isop> memo = new HashMap<>();//results of isop() by (lower, upper)
+	private int[] visited;//stamp of the BDD nodes seen by the current intersects()
+	private int stamp;
+
+	private CoverMinimizer(BddManager manager, int f, long[] bitOfLevel, int[] variableAt) {
+		this.manager = manager;
+		this.notF = manager.not(f);
+		this.bitOfLevel = bitOfLevel;
+		this.variableAt = variableAt;
+	}
+
+	/**
+	 * exact prime implicants, the cover is the essential ones and then the one covering the most rows
+	 * that are left until every row is covered, then any that became redundant are dropped
+	 * @param variables - variables in slot order, at most 31
+	 * @param table - packed truth table, see LogicalExpression.truthTable()
+	 * @return a cover of the rows of the table
+	 */
+	public static Cover quineMcCluskey(String[] variables, long[] table) {
+		int n = variables.length;
+		if (n > 31) {
+			throw new IllegalArgumentException("Quine-McCluskey takes at most 31 variables");
+		}
+		int count = 0;
+		for (long word : table) {
+			count += Long.bitCount(word);
+		}
+		long[] minterms = new long[count];
+		for (int w = 0, k = 0; w < table.length; w++) {
+			for (long bits = table[w]; bits != 0; bits &= bits - 1) {
+				minterms[k++] = 64L * w + Long.numberOfTrailingZeros(bits);
+			}
+		}
+		long all = (1L << n) - 1;
+		ArrayList<long[]> primes = new ArrayList<>();
+		HashSet<Long> level = new HashSet<>();//implicants with the same number of don't-cares, as care << 32 | values
+		for (long m : minterms) {
+			level.add(all << 32 | m);
+		}
+		while (!level.isEmpty()) {
+			HashSet<Long> next = new HashSet<>();
+			HashSet<Long> merged = new HashSet<>();
+			for (long key : level) {
+				long care = key >>> 32;
+				for (long zeros = care & ~key; zeros != 0; zeros &= zeros - 1) {
+					long bit = zeros & -zeros;
+					if (level.contains(key | bit)) {//same cube with the variable true, together they don't need it
+						merged.add(key);
+						merged.add(key | bit);
+						next.add(key & ~(bit << 32));
+					}
+				}
+			}
+			for (long key : level) {
+				if (!merged.contains(key)) {
+					primes.add(new long[] { key >>> 32, key & all });
+				}
+			}
+			level = next;
+		}
+
+		int[] indexOf = new int[1 << n];//position of each row in minterms
+		for (int k = 0; k < count; k++) {
+			indexOf[(int) minterms[k]] = k;
+		}
+		int words = (count + 63) >>> 6;
+		long[][] rowsOf = new long[primes.size()][words];//minterms each prime covers
+		int[] timesCovered = new int[count];
+		for (int i = 0; i < primes.size(); i++) {
+			long dontCare = all & ~primes.get(i)[0];
+			long sub = dontCare;
+			while (true) {
+				int k = indexOf[(int) (primes.get(i)[1] | sub)];
+				rowsOf[i][k >>> 6] |= 1L << k;
+				timesCovered[k]++;
+				if (sub == 0) {
+					break;
+				}
+				sub = (sub - 1) & dontCare;
+			}
+		}
+		boolean[] chosen = new boolean[primes.size()];
+		long[] covered = new long[words];
+		for (int i = 0; i < primes.size(); i++) {
+			for (int w = 0; w < words && !chosen[i]; w++) {
+				for (long bits = rowsOf[i][w]; bits != 0; bits &= bits - 1) {
+					if (timesCovered[64 * w + Long.numberOfTrailingZeros(bits)] == 1) {
+						chosen[i] = true;//essential, the only prime covering this row
+						break;
+					}
+				}
+			}
+			if (chosen[i]) {
+				or(covered, rowsOf[i]);
+			}
+		}
+		ArrayList<Integer> order = new ArrayList<>();
+		while (true) {
+			int best = -1;
+			int bestGain = 0;
+			for (int i = 0; i < primes.size(); i++) {
+				if (chosen[i]) {
+					continue;
+				}
+				int gain = 0;
+				for (int w = 0; w < words; w++) {
+					gain += Long.bitCount(rowsOf[i][w] & ~covered[w]);
+				}
+				if (gain > bestGain || (gain == bestGain && gain > 0 && Long.bitCount(primes.get(i)[0]) < Long.bitCount(primes.get(best)[0]))) {
+					best = i;
+					bestGain = gain;
+				}
+			}
+			if (best == -1) {
+				break;//every row is covered
+			}
+			chosen[best] = true;
+			order.add(best);
+			or(covered, rowsOf[best]);
+		}
+		int[] coveredBy = new int[count];//chosen primes covering each row
+		for (int i = 0; i < primes.size(); i++) {
+			if (chosen[i]) {
+				forEachRow(rowsOf[i], k -> coveredBy[k]++);
+			}
+		}
+		for (int j = order.size() - 1; j >= 0; j--) {//later greedy picks are the likeliest to have become redundant
+			int i = order.get(j);
+			boolean redundant = true;
+			for (int w = 0; w < words && redundant; w++) {
+				for (long bits = rowsOf[i][w]; bits != 0; bits &= bits - 1) {
+					if (coveredBy[64 * w + Long.numberOfTrailingZeros(bits)] < 2) {
+						redundant = false;
+						break;
+					}
+				}
+			}
+			if (redundant) {
+				chosen[i] = false;
+				forEachRow(rowsOf[i], k -> coveredBy[k]--);
+			}
+		}
+		ArrayList<long[]> cover = new ArrayList<>();
+		for (int i = 0; i < primes.size(); i++) {
+			if (chosen[i]) {
+				cover.add(primes.get(i));
+			}
+		}
+		return toCover(variables, cover);
+	}
+
+	/**
+	 * Espresso-style heuristic minimization, the result is a cover of prime implicants with no redundant cube
+	 * @param variables - variables in slot order, at most Cover.MAX_VARIABLES
+	 * @param manager - manager f was built in, every variable of f must be one of the variables
+	 * @param f - BDD of the sentence
+	 * @return a cover of the rows where f is true
+	 */
+	public static Cover espresso(String[] variables, BddManager manager, int f) {
+		int n = variables.length;
+		if (n > Cover.MAX_VARIABLES) {
+			throw new IllegalArgumentException("a cover holds at most " + Cover.MAX_VARIABLES + " variables");
+		}
+		int levels = 0;
+		for (String v : variables) {
+			levels = Math.max(levels, manager.getLevel(v) + 1);
+		}
+		long[] bitOfLevel = new long[levels];
+		for (int k = 0; k < n; k++) {
+			bitOfLevel[manager.getLevel(variables[k])] = 1L << (n - 1 - k);
+		}
+		int[] variableAt = new int[levels];
+		for (int k = 0; k < n; k++) {
+			variableAt[manager.getLevel(variables[k])] = manager.variable(variables[k]);
+		}
+		CoverMinimizer minimizer = new CoverMinimizer(manager, f, bitOfLevel, variableAt);
+		ArrayList<long[]> cover = new ArrayList<>(minimizer.isop(f, f, new int[1]));
+		minimizer.memo.clear();
+		cover = irredundant(minimizer.expand(cover));
+		ArrayList<long[]> best = cover;
+		for (int pass = 0; pass < MAX_PASSES; pass++) {
+			cover = irredundant(minimizer.expand(reduce(cover, n == 64 ? -1L : (1L << n) - 1)));
+			if (!isSmaller(cover, best)) {
+				break;
+			}
+			best = cover;
+		}
+		return toCover(variables, best);
+	}
+
+	/**
+	 * Minato-Morreale: an irredundant sum of products covering every row of lower and no row outside upper
+	 * @param lower - rows that must be covered
+	 * @param upper - rows that may be covered
+	 * @param bdd - gets the BDD of the cover in position 0
+	 * @return cubes of the cover, shared with the memo so they must not be changed
+	 */
+	private ArrayList<long[]> isop(int lower, int upper, int[] bdd) {
+		if (lower == BddManager.FALSE) {
+			bdd[0] = BddManager.FALSE;
+			return new ArrayList<>();
+		}
+		if (upper == BddManager.TRUE) {
+			bdd[0] = BddManager.TRUE;
+			ArrayList<long[]> universal = new ArrayList<>();
+			universal.add(new long[] { 0, 0 });
+			return universal;
+		}
+		long key = (long) lower << 32 | upper;
+		Isop known = memo.get(key);
+		if (known != null) {
+			bdd[0] = known.bdd;
+			return known.cubes;
+		}
+		int top = Math.min(manager.getNodeLevel(lower), manager.getNodeLevel(upper));
+		int lower0 = restrict(lower, top, false);
+		int lower1 = restrict(lower, top, true);
+		int upper0 = restrict(upper, top, false);
+		int upper1 = restrict(upper, top, true);
+		int[] r0 = new int[1];
+		int[] r1 = new int[1];
+		int[] rd = new int[1];
+		ArrayList<long[]> c0 = isop(manager.and(lower0, manager.not(upper1)), upper0, r0);//rows only the false half may cover
+		ArrayList<long[]> c1 = isop(manager.and(lower1, manager.not(upper0)), upper1, r1);
+		int rest = manager.or(manager.and(lower0, manager.not(r0[0])), manager.and(lower1, manager.not(r1[0])));
+		ArrayList<long[]> cd = isop(rest, manager.and(upper0, upper1), rd);//rows either half may cover, without the variable
+		long bit = bitOfLevel[top];
+		ArrayList<long[]> cubes = new ArrayList<>(c0.size() + c1.size() + cd.size());
+		for (long[] c : c0) {
+			cubes.add(new long[] { c[0] | bit, c[1] });
+		}
+		for (long[] c : c1) {
+			cubes.add(new long[] { c[0] | bit, c[1] | bit });
+		}
+		cubes.addAll(cd);
+		bdd[0] = manager.ite(variableAt[top], manager.or(r1[0], rd[0]), manager.or(r0[0], rd[0]));
+		memo.put(key, new Isop(cubes, bdd[0]));
+		return cubes;
+	}
+
+	/**
+	 * @return f restricted to the variable at the given level having the given value
+	 */
+	private int restrict(int f, int top, boolean value) {
+		if (manager.getNodeLevel(f) != top) {
+			return f;
+		}
+		return value ? manager.getHigh(f) : manager.getLow(f);
+	}
+
+	/**
+	 * makes every cube prime by dropping each literal the sentence allows, biggest cubes first, trying first
+	 * the literals whose removal would swallow the most other cubes, and drops the cubes that end up inside another one
+	 */
+	private ArrayList<long[]> expand(ArrayList<long[]> cover) {
+		ArrayList<long[]> sorted = new ArrayList<>(cover);
+		sorted.sort(BIGGEST_FIRST);
+		boolean[] covered = new boolean[sorted.size()];
+		ArrayList<long[]> expanded = new ArrayList<>();
+		for (int i = 0; i < sorted.size(); i++) {
+			if (covered[i]) {
+				continue;
+			}
+			long care = sorted.get(i)[0];
+			long values = sorted.get(i)[1];
+			long[] literals = new long[Long.bitCount(care)];//score << 6 | position of the bit, so sorting orders by score
+			int numLiterals = 0;
+			for (long bits = care; bits != 0; bits &= bits - 1) {
+				long bit = bits & -bits;
+				int score = 0;
+				for (int j = 0; j < sorted.size(); j++) {
+					long[] d = sorted.get(j);
+					if (j != i && !covered[j] && contains(care & ~bit, values & ~bit, d[0], d[1])) {
+						score++;
+					}
+				}
+				literals[numLiterals++] = (long) score << 6 | Long.numberOfTrailingZeros(bit);
+			}
+			Arrays.sort(literals);
+			for (int l = numLiterals - 1; l >= 0; l--) {
+				long bit = 1L << (literals[l] & 63);
+				if (!intersects(notF, care & ~bit, values & ~bit)) {
+					care &= ~bit;//still inside the sentence without the literal
+					values &= ~bit;
+				}
+			}
+			for (int j = i + 1; j < sorted.size(); j++) {
+				if (!covered[j] && contains(care, values, sorted.get(j)[0], sorted.get(j)[1])) {
+					covered[j] = true;
+				}
+			}
+			expanded.add(new long[] { care, values });
+		}
+		return expanded;
+	}
+
+	/**
+	 * drops every cube that the rest of the cover already covers, smallest cubes first
+	 */
+	private static ArrayList<long[]> irredundant(ArrayList<long[]> cover) {
+		ArrayList<long[]> kept = new ArrayList<>(cover);
+		kept.sort(BIGGEST_FIRST.reversed());
+		for (int i = 0; i < kept.size();) {
+			long[] c = kept.remove(i);
+			if (!tautology(cofactor(kept, c[0], c[1]))) {
+				kept.add(i++, c);//some row is only covered by c
+			}
+		}
+		return kept;
+	}
+
+	/**
+	 * shrinks each cube to the part of it the other cubes don't cover, adding a literal whenever the
+	 * rows it excludes are covered by the others, so the next expand can grow it another way
+	 * @param variables - bits of all the variables
+	 */
+	private static ArrayList<long[]> reduce(ArrayList<long[]> cover, long variables) {
+		ArrayList<long[]> reduced = new ArrayList<>(cover);
+		reduced.sort(BIGGEST_FIRST);
+		for (int i = 0; i < reduced.size(); i++) {
+			long[] c = reduced.remove(i);
+			long care = c[0];
+			long values = c[1];
+			for (long free = variables & ~care; free != 0; free &= free - 1) {
+				long bit = free & -free;
+				if (tautology(cofactor(reduced, care | bit, values))) {
+					care |= bit;//the half where the variable is false is covered by the others
+					values |= bit;
+				} else if (tautology(cofactor(reduced, care | bit, values | bit))) {
+					care |= bit;
+				}
+			}
+			reduced.add(i, new long[] { care, values });
+		}
+		return reduced;
+	}
+
+	/**
+	 * @return whether the cube shares a row with g
+	 */
+	private boolean intersects(int g, long care, long values) {
+		if (visited == null || visited.length < manager.getNodeCount()) {
+			visited = new int[manager.getNodeCount()];
+		}
+		stamp++;
+		return intersectsUnder(g, care, values);
+	}
+
+	private boolean intersectsUnder(int g, long care, long values) {
+		if (g == BddManager.FALSE) {
+			return false;
+		}
+		if (g == BddManager.TRUE) {
+			return true;
+		}
+		if (visited[g] == stamp) {
+			return false;//already searched without finding a row
+		}
+		visited[g] = stamp;
+		long bit = bitOfLevel[manager.getNodeLevel(g)];
+		if ((care & bit) != 0) {
+			return intersectsUnder((values & bit) != 0 ? manager.getHigh(g) : manager.getLow(g), care, values);
+		}
+		return intersectsUnder(manager.getLow(g), care, values) || intersectsUnder(manager.getHigh(g), care, values);
+	}
+
+	/**
+	 * @return whether the cubes cover every row, by splitting on the variable in the most cubes that
+	 * appears both true and false until the cubes are unate (then only a cube without literals covers everything)
+	 */
+	private static boolean tautology(ArrayList<long[]> cubes) {
+		long positive = 0;
+		long negative = 0;
+		for (long[] c : cubes) {
+			if (c[0] == 0) {
+				return true;
+			}
+			positive |= c[1];
+			negative |= c[0] & ~c[1];
+		}
+		long binate = positive & negative;
+		if (binate == 0) {
+			return false;
+		}
+		long split = 0;
+		int most = -1;
+		for (long bits = binate; bits != 0; bits &= bits - 1) {
+			long bit = bits & -bits;
+			int in = 0;
+			for (long[] c : cubes) {
+				if ((c[0] & bit) != 0) {
+					in++;
+				}
+			}
+			if (in > most) {
+				most = in;
+				split = bit;
+			}
+		}
+		return tautology(cofactor(cubes, split, split)) && tautology(cofactor(cubes, split, 0));
+	}
+
+	/**
+	 * @return the cubes restricted to the rows of the cube (care, values), as cubes over the other variables
+	 */
+	private static ArrayList<long[]> cofactor(ArrayList<long[]> cubes, long care, long values) {
+		ArrayList<long[]> result = new ArrayList<>(cubes.size());
+		for (long[] c : cubes) {
+			if ((c[0] & care & (c[1] ^ values)) == 0) {
+				result.add(new long[] { c[0] & ~care, c[1] & ~care });
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return whether cube (care, values) contains cube (otherCare, otherValues)
+	 */
+	private static boolean contains(long care, long values, long otherCare, long otherValues) {
+		return (care & ~otherCare) == 0 && ((values ^ otherValues) & care) == 0;
+	}
+
+	/**
+	 * @return whether a has fewer cubes than b, or as many with fewer literals
+	 */
+	private static boolean isSmaller(ArrayList<long[]> a, ArrayList<long[]> b) {
+		if (a.size() != b.size()) {
+			return a.size() < b.size();
+		}
+		return literals(a) < literals(b);
+	}
+
+	private static int literals(ArrayList<long[]> cover) {
+		int literals = 0;
+		for (long[] c : cover) {
+			literals += Long.bitCount(c[0]);
+		}
+		return literals;
+	}
+
+	private static void or(long[] into, long[] bits) {
+		for (int w = 0; w < into.length; w++) {
+			into[w] |= bits[w];
+		}
+	}
+
+	private static void forEachRow(long[] rows, IntConsumer action) {
+		for (int w = 0; w < rows.length; w++) {
+			for (long bits = rows[w]; bits != 0; bits &= bits - 1) {
+				action.accept(64 * w + Long.numberOfTrailingZeros(bits));
+			}
+		}
+	}
+
+	/**
+	 * @return the cubes as a Cover, fewest literals first
+	 */
+	private static Cover toCover(String[] variables, ArrayList<long[]> cubes) {
+		long[][] sorted = cubes.toArray(new long[0][]);
+		Arrays.sort(sorted, Comparator.comparingInt((long[] c) -> Long.bitCount(c[0])).thenComparing((long[] c) -> -c[0]).thenComparing((long[] c) -> -c[1]));
+		long[] care = new long[sorted.length];
+		long[] values = new long[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			care[i] = sorted[i][0];
+			values[i] = sorted[i][1];
+		}
+		return new Cover(variables, care, values);
+	}
+
+	/**
+	 * memoized result of isop()
+	 */
+	private static final class Isop {
+		final ArrayList<long[]> cubes;
+		final int bdd;
+
+		Isop(ArrayList<long[]> cubes, int bdd) {
+			this.cubes = cubes;
+			this.bdd = bdd;
+		}
+	}
+}
@@ -0,0 +1,265 @@
+import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * which sentences of a collection entail which, for every ordered pair
+ * each sentence is analyzed once (valid, satisfiable, variables, fraction of satisfying rows from the
+ * model count and, for small sentences, the truth table). Most pairs are decided from that alone, the rest are checked on
+ * the truth table when one sentence's variables contain the other's, and only what's left goes to
+ * LogicalExpression.entails(). Rows of the matrix are computed in parallel
+ * the results are stored in 2 bits per pair
+ */
+public class EntailmentMatrix {
+	private static final int TABLE_MAX_VARIABLES = 16;//sentences with at most this many variables keep their truth table while the matrix is built
+	private static final long TRUE = 1;//2 bit codes of the results, 0 is undetermined
+	private static final long FALSE = 2;
+
+	private final int size;
+	private final long[][] rows;//row i holds whether sentence i entails each sentence j, 32 pairs to a word
+	private final LongAdder tableChecks = new LongAdder();
+	private final LongAdder solverCalls = new LongAdder();
+
+	private EntailmentMatrix(int size) {
+		this.size = size;
+		this.rows = new long[size][(size + 31) >>> 5];
+	}
+
+	/**
+	 * @param sentences - sentences to compare
+	 * @return the matrix of sentences.get(i).entails(sentences.get(j)), computed on the common pool
+	 */
+	public static EntailmentMatrix compute(List<? extends LogicalExpression> sentences) {
+		return compute(sentences, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param sentences - sentences to compare
+	 * @param pool - pool the sentences are analyzed and the rows computed on
+	 * @return the matrix of sentences.get(i).entails(sentences.get(j))
+	 */
+	public static EntailmentMatrix compute(List<? extends LogicalExpression> sentences, ForkJoinPool pool) {
+		int n = sentences.size();
+		EntailmentMatrix matrix = new EntailmentMatrix(n);
+		Analysis[] analyses = new Analysis[n];
+		pool.invoke(new RangeTask(0, n, i -> analyses[i] = new Analysis(sentences.get(i))));
+		pool.invoke(new RangeTask(0, n, i -> matrix.computeRow(analyses, i)));
+		return matrix;
+	}
+
+	/**
+	 * @return number of sentences
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return whether sentence i entails sentence j
+	 */
+	public ThreeValuedVariable entails(int i, int j) {
+		return toThreeValued(get(i, j));
+	}
+
+	/**
+	 * @return whether sentences i and j are equivalent, they are when each entails the other
+	 */
+	public ThreeValuedVariable equivalent(int i, int j) {
+		long forward = get(i, j);
+		long backward = get(j, i);
+		if (forward == FALSE || backward == FALSE) {
+			return new ThreeValuedVariable(-1);
+		}
+		return new ThreeValuedVariable(forward == TRUE && backward == TRUE ? 1 : 0);
+	}
+
+	/**
+	 * @param i - index of a sentence
+	 * @return indices of the sentences that sentence i entails, in increasing order (including i)
+	 */
+	public int[] getEntailed(int i) {
+		int count = 0;
+		for (int j = 0; j < size; j++) {
+			if (get(i, j) == TRUE) {
+				count++;
+			}
+		}
+		int[] entailed = new int[count];
+		for (int j = 0, k = 0; j < size; j++) {
+			if (get(i, j) == TRUE) {
+				entailed[k++] = j;
+			}
+		}
+		return entailed;
+	}
+
+	/**
+	 * @return number of pairs that were decided on a truth table
+	 */
+	public long getNumOfTableChecks() {
+		return tableChecks.sum();
+	}
+
+	/**
+	 * @return number of pairs that needed LogicalExpression.entails()
+	 */
+	public long getNumOfSolverCalls() {
+		return solverCalls.sum();
+	}
+
+	private long get(int i, int j) {
+		return (rows[i][j >>> 5] >>> ((j & 31) << 1)) & 3;
+	}
+
+	private static ThreeValuedVariable toThreeValued(long code) {
+		return new ThreeValuedVariable(code == TRUE ? 1 : code == FALSE ? -1 : 0);
+	}
+
+	/**
+	 * fills row i, the only row this call writes to
+	 */
+	private void computeRow(Analysis[] analyses, int i) {
+		Analysis a = analyses[i];
+		long[][] columns = a.table != null ? a.rowColumns() : null;//a's variables across its own truth table
+		HashMap<String,Integer> slotOf = new HashMap<>();
+		for (int s = 0; s < a.variables.length; s++) {
+			slotOf.put(a.variables[s], s);
+		}
+		long[] row = rows[i];
+		for (int j = 0; j < analyses.length; j++) {
+			row[j >>> 5] |= decide(a, analyses[j], columns, slotOf) << ((j & 31) << 1);
+		}
+	}
+
+	/**
+	 * @param a - sentence on the left
+	 * @param b - sentence on the right
+	 * @param columns - a's variables across a's truth table, null if a has no table
+	 * @param slotOf - slot of each of a's variables
+	 * @return code of whether a entails b
+	 */
+	private long decide(Analysis a, Analysis b, long[][] columns, HashMap<String,Integer> slotOf) {
+		if (a == b || (a.expression != null && a.expression == b.expression)) {
+			return TRUE;//hash-consed, the same node is the same sentence
+		}
+		if (!a.satisfiable || b.valid) {
+			return TRUE;
+		}
+		if (a.valid || !b.satisfiable) {
+			return FALSE;//a has a model, and a's models aren't all b's
+		}
+		if (!a.variableSet.intersects(b.variableSet)) {
+			return FALSE;//independent and neither is constant, so some model of a falsifies b
+		}
+		if (a.fraction > b.fraction) {
+			return FALSE;//a has more models than b over the variables of both
+		}
+		if (columns != null && isSubset(b.variableSet, a.variableSet)) {
+			tableChecks.increment();
+			long[][] bColumns = new long[b.variables.length][];
+			for (int k = 0; k < bColumns.length; k++) {
+				bColumns[k] = columns[slotOf.get(b.variables[k])];
+			}
+			long[] bTable = b.sentence.evaluateBatch(bColumns, 1 << a.variables.length);//b on each row of a's table
+			for (int w = 0; w < bTable.length; w++) {
+				if ((a.table[w] & ~bTable[w]) != 0) {
+					return FALSE;
+				}
+			}
+			return TRUE;
+		}
+		solverCalls.increment();
+		ThreeValuedVariable value = a.sentence.entails(b.sentence);
+		return value.isTrue() ? TRUE : value.isFalse() ? FALSE : 0;
+	}
+
+	private static boolean isSubset(BitSet small, BitSet big) {
+		BitSet rest = (BitSet) small.clone();
+		rest.andNot(big);
+		return rest.isEmpty();
+	}
+
+	/**
+	 * what the matrix needs to know about one sentence, worked out once
+	 */
+	private static final class Analysis {
+		final LogicalExpression sentence;
+		final Expr expression;//DAG node for LogicalSentences, null otherwise
+		final String[] variables;
+		final BitSet variableSet;
+		final boolean valid;
+		final boolean satisfiable;
+		final long[] table;//packed truth table, null if the sentence has too many variables
+		final double fraction;//satisfying rows / all rows
+
+		Analysis(LogicalExpression sentence) {
+			this.sentence = sentence;
+			this.expression = sentence instanceof LogicalSentence ? ((LogicalSentence) sentence).getExpression() : null;
+			this.variables = sentence.getDistinctVariables();
+			this.variableSet = sentence.getVariableSet();
+			if (variables.length <= TABLE_MAX_VARIABLES) {
+				table = sentence.truthTable(null);
+				long count = 0;
+				for (long word : table) {
+					count += Long.bitCount(word);
+				}
+				satisfiable = count > 0;
+				valid = count == 1L << variables.length;
+				fraction = (double) count / (1L << variables.length);
+			} else {
+				table = null;
+				BigInteger count = sentence.countModels();
+				satisfiable = count.signum() > 0;
+				valid = count.equals(BigInteger.ONE.shiftLeft(variables.length));
+				fraction = Math.scalb(count.doubleValue(), -variables.length);//rounding keeps the order, so pruning on it stays safe
+			}
+		}
+
+		/**
+		 * @return for each slot, the value of its variable in each row of the truth table packed the same way as the table
+		 */
+		long[][] rowColumns() {
+			long[][] columns = new long[variables.length][table.length];
+			for (int s = 0; s < variables.length; s++) {
+				int bit = variables.length - 1 - s;
+				for (int w = 0; w < table.length; w++) {
+					columns[s][w] = LogicalSentence.rowPattern(bit, w);
+				}
+			}
+			return columns;
+		}
+	}
+
+	/**
+	 * runs an action for every index of a range, splitting the range across the pool
+	 */
+	private static class RangeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int from;
+		private final int to;
+		private final IntConsumer action;
+
+		RangeTask(int from, int to, IntConsumer action) {
+			this.from = from;
+			this.to = to;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new RangeTask(from, middle, action), new RangeTask(middle, to, action));
+				return;
+			}
+			if (from < to) {
+				action.accept(from);
+			}
+		}
+	}
+}
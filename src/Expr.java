@@ -0,0 +1,245 @@
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * immutable node of a sentence's expression DAG
+ * nodes are hash-consed: building the same operator over the same children always returns the same
+ * node, so a subformula that appears many times (in one sentence or across sentences) is stored once
+ * and every node has a stable id. The children of the commutative operators (&, |, ^ and <->) are ordered by id,
+ * so a&b and b&a are the same node
+ * the unique table only holds its nodes weakly (and its keys name the children by id, so they don't hold them
+ * either): a node stays shared while some sentence still uses it and is dropped once none does, so memory
+ * follows the subformulas in use rather than every one ever parsed. A node that is built again after
+ * being dropped gets a new id, so ids are longs: they are never handed out twice, or a key naming a
+ * dropped child by id could match a live node that got the same id
+ */
+public final class Expr {
+	public static final int VARIABLE = 0;//op of variable nodes, operators and constants use the Lexer codes
+
+	private static final ConcurrentHashMap<Key,NodeRef> unique = new ConcurrentHashMap<>();//every node still in use
+	private static final ReferenceQueue<Expr> dropped = new ReferenceQueue<>();//references of collected nodes, to take out of unique
+	private static final AtomicLong nextId = new AtomicLong();
+
+	private final int op;
+	private final int symbol;//SymbolTable id for variables, -1 for operators and constants
+	private final Expr left;//operand of ~, first operand of the binary operators
+	private final Expr right;//second operand of the binary operators
+	private final long id;
+
+	private Expr(int op, int symbol, Expr left, Expr right) {
+		this.op = op;
+		this.symbol = symbol;
+		this.left = left;
+		this.right = right;
+		this.id = nextId.getAndIncrement();
+	}
+
+	/**
+	 * @param symbol - SymbolTable id of the variable
+	 * @return the node of the variable
+	 */
+	public static Expr variable(int symbol) {
+		return intern(new Key(VARIABLE, symbol, -1), VARIABLE, symbol, null, null);
+	}
+
+	/**
+	 * @param value - value of the constant
+	 * @return the node of the constant 1 or 0
+	 */
+	public static Expr constant(boolean value) {
+		int op = value ? Lexer.TRUE : Lexer.FALSE;
+		return intern(new Key(op, -1, -1), op, -1, null, null);
+	}
+
+	/**
+	 * @return the node of ~e
+	 */
+	public static Expr not(Expr e) {
+		return operator(Lexer.NOT, e, null);
+	}
+
+	/**
+	 * @return the node of a & b
+	 */
+	public static Expr and(Expr a, Expr b) {
+		return operator(Lexer.AND, a, b);
+	}
+
+	/**
+	 * @return the node of a | b
+	 */
+	public static Expr or(Expr a, Expr b) {
+		return operator(Lexer.OR, a, b);
+	}
+
+	/**
+	 * @return the node of a ^ b
+	 */
+	public static Expr xor(Expr a, Expr b) {
+		return operator(Lexer.XOR, a, b);
+	}
+
+	/**
+	 * @return the node of a -> b
+	 */
+	public static Expr implies(Expr a, Expr b) {
+		return operator(Lexer.IMPLIES, a, b);
+	}
+
+	/**
+	 * @return the node of a <-> b
+	 */
+	public static Expr iff(Expr a, Expr b) {
+		return operator(Lexer.IFF, a, b);
+	}
+
+	/**
+	 * @param op - Lexer code of the operator
+	 * @param a - first operand
+	 * @param b - second operand, null for ~
+	 * @return the node of the operator applied to the operands
+	 */
+	public static Expr operator(int op, Expr a, Expr b) {
+		if (b != null && b.id < a.id && op != Lexer.IMPLIES) {//commutative, so keep the children in id order
+			Expr swap = a;
+			a = b;
+			b = swap;
+		}
+		return intern(new Key(op, a.id, b == null ? -1 : b.id), op, -1, a, b);
+	}
+
+	/**
+	 * @return the node in the unique table under the key, built and added if there is none or it was collected
+	 */
+	private static Expr intern(Key key, int op, int symbol, Expr left, Expr right) {
+		expunge();
+		while (true) {
+			NodeRef ref = unique.get(key);
+			Expr node = ref == null ? null : ref.get();
+			if (node != null) {
+				return node;
+			}
+			Expr built = new Expr(op, symbol, left, right);
+			NodeRef fresh = new NodeRef(built, key);
+			if (ref == null ? unique.putIfAbsent(key, fresh) == null : unique.replace(key, ref, fresh)) {
+				return built;
+			}
+			//another thread added the node first, use its one
+		}
+	}
+
+	/**
+	 * takes the entries of collected nodes out of the unique table
+	 */
+	private static void expunge() {
+		for (Object ref; (ref = dropped.poll()) != null;) {
+			NodeRef nodeRef = (NodeRef) ref;
+			unique.remove(nodeRef.key, nodeRef);//unless the node was built again under the same key
+		}
+	}
+
+	/**
+	 * @return number of distinct nodes in use, across all sentences (nodes collected since the last
+	 * node was built may still be counted)
+	 */
+	public static int getNumOfNodes() {
+		expunge();
+		return unique.size();
+	}
+
+	/**
+	 * @return VARIABLE or the Lexer code of the operator or constant
+	 */
+	public int getOp() {
+		return op;
+	}
+
+	/**
+	 * @return SymbolTable id of a variable node, -1 for operators and constants
+	 */
+	public int getSymbol() {
+		return symbol;
+	}
+
+	public Expr getLeft() {
+		return left;
+	}
+
+	public Expr getRight() {
+		return right;
+	}
+
+	/**
+	 * @return id of the node, unique and stable for as long as the node is in use
+	 */
+	public long getId() {
+		return id;
+	}
+
+	@Override
+	public String toString() {
+		switch (op) {
+		case VARIABLE:
+			return SymbolTable.nameOf(symbol);
+		case Lexer.TRUE:
+			return "1";
+		case Lexer.FALSE:
+			return "0";
+		case Lexer.NOT:
+			return "~" + (left.left == null || left.op == Lexer.NOT ? left.toString() : "(" + left + ")");
+		case Lexer.AND:
+			return "(" + left + " & " + right + ")";
+		case Lexer.XOR:
+			return "(" + left + " ^ " + right + ")";
+		case Lexer.IMPLIES:
+			return "(" + left + " -> " + right + ")";
+		case Lexer.IFF:
+			return "(" + left + " <-> " + right + ")";
+		default:
+			return "(" + left + " | " + right + ")";
+		}
+	}
+
+	/**
+	 * weak reference to a node in the unique table, remembers its key so the entry can be removed once the node is collected
+	 */
+	private static final class NodeRef extends WeakReference<Expr> {
+		private final Key key;
+
+		NodeRef(Expr node, Key key) {
+			super(node, dropped);
+			this.key = key;
+		}
+	}
+
+	/**
+	 * key of the unique table, children are identified by id
+	 */
+	private static final class Key {
+		private final int op;
+		private final long a;//ids of the children, -1 for none (variables keep their symbol id here)
+		private final long b;
+
+		Key(int op, long a, long b) {
+			this.op = op;
+			this.a = a;
+			this.b = b;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key k = (Key) o;
+			return op == k.op && a == k.a && b == k.b;
+		}
+
+		@Override
+		public int hashCode() {
+			return (op * 31 + Long.hashCode(a)) * 1000003 + Long.hashCode(b);
+		}
+	}
+}
@@ -0,0 +1,205 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * walks every row in Gray code order, so each row differs from the one before in exactly one variable
+ * the registers keep their values from one row to the next and only the ones that depend on the flipped
+ * variable (its cone: the registers on the paths from it up to the root) are run again, so a row costs
+ * the size of that cone rather than the whole sentence
+ * a row is the packed assignment LogicalExpression.evaluate(long) takes, row i of the walk is i ^ (i >>> 1)
+ */
+public class GrayCodeIterator implements PrimitiveIterator.OfLong {
+	public static final int MAX_VARIABLES = 63;//the number of rows has to fit in a long
+
+	private final int[] code;
+	private final int rootRegister;
+	private final int numOfSlots;
+	private final long rows;
+	private final boolean[] registers;
+	private int[] variableRegisters;//register of each slot, -1 if a slot has none
+	private int[][] cones;//registers depending on each slot in the order they have to run, worked out on the first row
+	private long next;//position in the walk of the next row
+	private boolean value;
+
+	/**
+	 * @param sentence - sentence whose rows to walk
+	 * @param rows - number of rows to walk, 2^n or 0 for none
+	 */
+	GrayCodeIterator(LogicalSentence sentence, long rows) {
+		this.code = sentence.getCode();
+		this.rootRegister = sentence.getRootRegister();
+		this.numOfSlots = sentence.getNumOfDistinctVariablesInSentence();
+		this.rows = rows;
+		this.registers = new boolean[rows == 0 ? 0 : sentence.getNumOfRegisters()];
+	}
+
+	@Override
+	public boolean hasNext() {
+		return next < rows;
+	}
+
+	/**
+	 * @return the next row, value() is the sentence on it
+	 */
+	@Override
+	public long nextLong() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		if (next == 0) {
+			variableRegisters = variableRegisters(code, registers.length, numOfSlots);
+			cones = cones(code, registers.length, variableRegisters, 0);
+			runAll();
+		} else {
+			int slot = numOfSlots - 1 - Long.numberOfTrailingZeros(next);//the row bit that changes between i - 1 and i in the walk
+			int r = variableRegisters[slot];
+			if (r >= 0) {
+				registers[r] = !registers[r];
+				run(cones[slot]);
+			}
+		}
+		value = registers[rootRegister];
+		long row = next ^ (next >>> 1);
+		next++;
+		return row;
+	}
+
+	/**
+	 * @return value of the sentence on the row nextLong() last returned
+	 */
+	public boolean value() {
+		if (next == 0) {
+			throw new IllegalStateException("no row yet");
+		}
+		return value;
+	}
+
+	/**
+	 * runs every register on row 0, where every variable is false
+	 */
+	private void runAll() {
+		for (int r = 0, j = 0; r < registers.length; r++, j += 3) {
+			int op = code[j];
+			registers[r] = op == LogicalSentence.OP_TRUE || (op < 0 && op != LogicalSentence.OP_FALSE && runOperator(op, j));
+		}
+	}
+
+	/**
+	 * runs the registers of a cone again
+	 */
+	private void run(int[] cone) {
+		for (int r : cone) {
+			registers[r] = runOperator(code[3 * r], 3 * r);
+		}
+	}
+
+	private boolean runOperator(int op, int j) {
+		if (op == LogicalSentence.OP_NOT) {
+			return !registers[code[j + 1]];
+		} else if (op == LogicalSentence.OP_AND) {
+			return registers[code[j + 1]] && registers[code[j + 2]];
+		} else if (op == LogicalSentence.OP_OR) {
+			return registers[code[j + 1]] || registers[code[j + 2]];
+		} else if (op == LogicalSentence.OP_XOR) {
+			return registers[code[j + 1]] != registers[code[j + 2]];
+		} else if (op == LogicalSentence.OP_IMPLIES) {
+			return !registers[code[j + 1]] || registers[code[j + 2]];
+		} else {
+			return registers[code[j + 1]] == registers[code[j + 2]];//OP_IFF
+		}
+	}
+
+	/**
+	 * the truth table the same way, 64 rows at a time: the low 6 row bits change inside a word, so only the
+	 * variables above them change from word to word and walking the words in Gray code order runs one
+	 * variable's cone per word instead of every register
+	 * @param sentence - well formed sentence with more than 6 variables
+	 * @return all possible outcomes packed 64 to a long, row i is bit (i % 64) of word (i / 64)
+	 */
+	static long[] truthTable(LogicalSentence sentence) {
+		int[] code = sentence.getCode();
+		int numOfRegisters = sentence.getNumOfRegisters();
+		int rootRegister = sentence.getRootRegister();
+		int numOfSlots = sentence.getNumOfDistinctVariablesInSentence();
+		long[] table = new long[(int)sentence.getNumOfWords()];
+		long[] registers = new long[numOfRegisters];
+		table[0] = sentence.evaluateWord(0, registers);//fills in every register for word 0
+		int[] variableRegisters = variableRegisters(code, numOfRegisters, numOfSlots);
+		int[][] cones = cones(code, numOfRegisters, variableRegisters, 6);
+		for (int i = 1; i < table.length; i++) {
+			int slot = numOfSlots - 1 - 6 - Integer.numberOfTrailingZeros(i);
+			int flipped = variableRegisters[slot];
+			if (flipped >= 0) {
+				registers[flipped] = ~registers[flipped];
+				for (int r : cones[slot]) {
+					int j = 3 * r;
+					int op = code[j];
+					if (op == LogicalSentence.OP_NOT) {
+						registers[r] = ~registers[code[j + 1]];
+					} else if (op == LogicalSentence.OP_AND) {
+						registers[r] = registers[code[j + 1]] & registers[code[j + 2]];
+					} else if (op == LogicalSentence.OP_OR) {
+						registers[r] = registers[code[j + 1]] | registers[code[j + 2]];
+					} else if (op == LogicalSentence.OP_XOR) {
+						registers[r] = registers[code[j + 1]] ^ registers[code[j + 2]];
+					} else if (op == LogicalSentence.OP_IMPLIES) {
+						registers[r] = ~registers[code[j + 1]] | registers[code[j + 2]];
+					} else {
+						registers[r] = ~(registers[code[j + 1]] ^ registers[code[j + 2]]);//OP_IFF
+					}
+				}
+			}
+			table[i ^ (i >>> 1)] = registers[rootRegister];
+		}
+		return table;
+	}
+
+	/**
+	 * @return register of each slot, -1 for a slot no register reads
+	 */
+	private static int[] variableRegisters(int[] code, int numOfRegisters, int numOfSlots) {
+		int[] variableRegisters = new int[numOfSlots];
+		Arrays.fill(variableRegisters, -1);
+		for (int r = 0; r < numOfRegisters; r++) {
+			if (code[3 * r] >= 0) {
+				variableRegisters[code[3 * r]] = r;
+			}
+		}
+		return variableRegisters;
+	}
+
+	/**
+	 * registers only ever read lower registers, so one pass upward from a variable finds its cone already in order
+	 * @param skipBits - row bits whose variables don't need a cone
+	 * @return the operator registers depending on each slot, in increasing order
+	 */
+	private static int[][] cones(int[] code, int numOfRegisters, int[] variableRegisters, int skipBits) {
+		int numOfSlots = variableRegisters.length;
+		int[][] cones = new int[numOfSlots][];
+		boolean[] depends = new boolean[numOfRegisters];
+		int[] cone = new int[numOfRegisters];
+		for (int slot = 0; slot < numOfSlots; slot++) {
+			int first = variableRegisters[slot];
+			if (numOfSlots - 1 - slot < skipBits || first < 0) {
+				cones[slot] = new int[0];
+				continue;
+			}
+			Arrays.fill(depends, false);
+			depends[first] = true;
+			int size = 0;
+			for (int r = first + 1, j = 3 * r; r < numOfRegisters; r++, j += 3) {
+				int op = code[j];
+				if (op >= 0 || op == LogicalSentence.OP_TRUE || op == LogicalSentence.OP_FALSE) {
+					continue;
+				}
+				if (depends[code[j + 1]] || (op != LogicalSentence.OP_NOT && depends[code[j + 2]])) {
+					depends[r] = true;
+					cone[size++] = r;
+				}
+			}
+			cones[slot] = Arrays.copyOf(cone, size);
+		}
+		return cones;
+	}
+}
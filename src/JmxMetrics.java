@@ -0,0 +1,230 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * default Metrics, keeps the counts and times in LongAdders and shows them as an MXBean
+ * (LogicalSentence:type=Metrics) so they can be read with jconsole or any JMX client
+ */
+public class JmxMetrics implements Metrics, JmxMetricsMXBean {
+	public static final String OBJECT_NAME = "LogicalSentence:type=Metrics";
+	private static final int MAX_TRACKED = 10000;//tracked sentences kept before the cheapest half is dropped
+	private static final int TOP = 20;//sentences listed by getExpensiveSentences()
+	private static final int MAX_TEXT = 120;//characters of a sentence shown
+
+	private final LongAdder sentencesParsed = new LongAdder();
+	private final LongAdder tokensProcessed = new LongAdder();
+	private final LongAdder assignmentsGenerated = new LongAdder();
+	private final LongAdder evaluationsRun = new LongAdder();
+	private final LongAdder modelsReturned = new LongAdder();
+	private final LongAdder[] phaseCalls = new LongAdder[Phase.values().length];
+	private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+	private volatile boolean trackingSentences;
+	private final ConcurrentHashMap<Long,SentenceCost> costs = new ConcurrentHashMap<>();//by id of the DAG node, which is the same for the same sentence (not the node, which would keep it alive)
+	private final AtomicBoolean trimming = new AtomicBoolean();
+
+	public JmxMetrics() {
+		for (int i = 0; i < phaseCalls.length; i++) {
+			phaseCalls[i] = new LongAdder();
+			phaseNanos[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * creates a JmxMetrics, registers it with the platform MBean server (replacing an earlier one)
+	 * and installs it with LogicalSentence.setMetrics()
+	 * @return the installed metrics
+	 */
+	public static synchronized JmxMetrics install() {
+		JmxMetrics metrics = new JmxMetrics();
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(metrics, name);
+		} catch (JMException e) {
+			throw new IllegalStateException("could not register " + OBJECT_NAME, e);
+		}
+		LogicalSentence.setMetrics(metrics);
+		return metrics;
+	}
+
+	@Override
+	public void sentenceParsed(int tokens) {
+		sentencesParsed.increment();
+		tokensProcessed.add(tokens);
+	}
+
+	@Override
+	public void assignmentsGenerated(long count) {
+		assignmentsGenerated.add(count);
+	}
+
+	@Override
+	public void evaluationsRun(long count) {
+		evaluationsRun.add(count);
+	}
+
+	@Override
+	public void modelsReturned(long count) {
+		modelsReturned.add(count);
+	}
+
+	@Override
+	public void phaseTimed(Phase phase, LogicalSentence sentence, long nanos) {
+		phaseCalls[phase.ordinal()].increment();
+		phaseNanos[phase.ordinal()].add(nanos);
+		Expr root;
+		if (trackingSentences && (root = sentence.getExpression()) != null) {
+			SentenceCost cost = costs.computeIfAbsent(root.getId(), k -> new SentenceCost(sentence.getSentence()));
+			cost.nanos.add(nanos);
+			cost.calls.increment();
+			if (costs.size() > MAX_TRACKED) {
+				trim();
+			}
+		}
+	}
+
+	@Override
+	public long getSentencesParsed() {
+		return sentencesParsed.sum();
+	}
+
+	@Override
+	public long getTokensProcessed() {
+		return tokensProcessed.sum();
+	}
+
+	@Override
+	public long getAssignmentsGenerated() {
+		return assignmentsGenerated.sum();
+	}
+
+	@Override
+	public long getEvaluationsRun() {
+		return evaluationsRun.sum();
+	}
+
+	@Override
+	public long getModelsReturned() {
+		return modelsReturned.sum();
+	}
+
+	@Override
+	public Map<String,Long> getPhaseCalls() {
+		return byPhase(phaseCalls);
+	}
+
+	@Override
+	public Map<String,Long> getPhaseNanos() {
+		return byPhase(phaseNanos);
+	}
+
+	@Override
+	public boolean isTrackingSentences() {
+		return trackingSentences;
+	}
+
+	@Override
+	public void setTrackingSentences(boolean tracking) {
+		trackingSentences = tracking;
+	}
+
+	@Override
+	public String[] getExpensiveSentences() {
+		List<SentenceCost> sorted = sortedCosts();
+		String[] top = new String[Math.min(TOP, sorted.size())];
+		for (int i = 0; i < top.length; i++) {
+			SentenceCost cost = sorted.get(i);
+			top[i] = String.format("%.3f ms in %d calls: %s", cost.nanos.sum() / 1e6, cost.calls.sum(), cost.text());
+		}
+		return top;
+	}
+
+	@Override
+	public void reset() {
+		sentencesParsed.reset();
+		tokensProcessed.reset();
+		assignmentsGenerated.reset();
+		evaluationsRun.reset();
+		modelsReturned.reset();
+		for (int i = 0; i < phaseCalls.length; i++) {
+			phaseCalls[i].reset();
+			phaseNanos[i].reset();
+		}
+		costs.clear();
+	}
+
+	private static Map<String,Long> byPhase(LongAdder[] adders) {
+		Map<String,Long> values = new LinkedHashMap<>();
+		for (Phase phase : Phase.values()) {
+			values.put(phase.name(), adders[phase.ordinal()].sum());
+		}
+		return values;
+	}
+
+	private List<SentenceCost> sortedCosts() {
+		List<SentenceCost> sorted = new ArrayList<>(costs.values());
+		sorted.sort(Comparator.comparingLong((SentenceCost c) -> c.nanos.sum()).reversed());
+		return sorted;
+	}
+
+	/**
+	 * drops the cheapest half of the tracked sentences, one thread at a time
+	 */
+	private void trim() {
+		if (!trimming.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			List<Map.Entry<Long,SentenceCost>> entries = new ArrayList<>(costs.entrySet());
+			entries.sort(Comparator.comparingLong(e -> e.getValue().nanos.sum()));
+			for (int i = 0; i < entries.size() / 2; i++) {
+				costs.remove(entries.get(i).getKey());
+			}
+		} finally {
+			trimming.set(false);
+		}
+	}
+
+	/**
+	 * time spent on one sentence
+	 */
+	private static final class SentenceCost {
+		final String[] sentence;//RPN of the sentence, only turned into text when listed
+		final LongAdder nanos = new LongAdder();
+		final LongAdder calls = new LongAdder();
+
+		SentenceCost(String[] sentence) {
+			this.sentence = sentence;
+		}
+
+		String text() {
+			StringBuilder sb = new StringBuilder();
+			int i = 0;
+			for (; i < sentence.length && sb.length() <= MAX_TEXT; i++) {
+				if (i > 0) {
+					sb.append(' ');
+				}
+				sb.append(sentence[i]);
+			}
+			if (i < sentence.length || sb.length() > MAX_TEXT) {
+				sb.setLength(Math.min(sb.length(), MAX_TEXT));
+				sb.append("...");
+			}
+			return sb.toString();
+		}
+	}
+}
@@ -0,0 +1,44 @@
+import java.util.Map;
+
+/**
+ * management interface of JmxMetrics
+ */
+public interface JmxMetricsMXBean {
+
+	long getSentencesParsed();
+
+	long getTokensProcessed();
+
+	long getAssignmentsGenerated();
+
+	long getEvaluationsRun();
+
+	long getModelsReturned();
+
+	/**
+	 * @return number of times each phase ran, by phase name
+	 */
+	Map<String,Long> getPhaseCalls();
+
+	/**
+	 * @return total wall time of each phase in nanoseconds, by phase name
+	 */
+	Map<String,Long> getPhaseNanos();
+
+	boolean isTrackingSentences();
+
+	/**
+	 * @param tracking - whether to keep the time spent on each sentence, for getExpensiveSentences()
+	 */
+	void setTrackingSentences(boolean tracking);
+
+	/**
+	 * @return the sentences that took the most time since tracking was turned on, most expensive first
+	 */
+	String[] getExpensiveSentences();
+
+	/**
+	 * sets every count and time back to 0 and forgets the tracked sentences
+	 */
+	void reset();
+}
@@ -0,0 +1,119 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * set of facts that grows one sentence at a time and answers queries about them
+ * every fact and query is encoded into one SatSolver that is kept for the life of the knowledge base,
+ * so learnt clauses and variable activity carry over from one query to the next. A query is asked by
+ * assuming its negation rather than adding it, and facts added inside a scope (push()) are guarded
+ * by a selector variable that is assumed while the scope is open and fixed to false by pop()
+ */
+public class KnowledgeBase {
+	private final SatSolver solver = new SatSolver();
+	private final HashMap<String,Integer> variables = new HashMap<>();//solver variable of each variable name
+	private final HashMap<Expr,Integer> literals = new HashMap<>();//literal of each sentence encoded so far, by DAG node
+	private final ArrayList<LogicalExpression> facts = new ArrayList<>();
+	private int[] selectors = new int[8];//selector variable of each open scope
+	private int[] scopeStarts = new int[8];//number of facts when each open scope was pushed
+	private int numScopes;
+
+	/**
+	 * adds a fact, it holds until the scope it was added in is popped (for good if no scope is open)
+	 * @param fact - sentence to add
+	 */
+	public void add(LogicalExpression fact) {
+		int lit = literalOf(fact);
+		if (numScopes == 0) {
+			solver.addClause(lit);
+		} else {
+			solver.addClause(-selectors[numScopes - 1], lit);//only holds while the selector is assumed
+		}
+		facts.add(fact);
+	}
+
+	/**
+	 * opens a scope, facts added until the matching pop() are retracted by it
+	 */
+	public void push() {
+		if (numScopes == selectors.length) {
+			selectors = Arrays.copyOf(selectors, numScopes * 2);
+			scopeStarts = Arrays.copyOf(scopeStarts, numScopes * 2);
+		}
+		selectors[numScopes] = solver.newVariable();
+		scopeStarts[numScopes] = facts.size();
+		numScopes++;
+	}
+
+	/**
+	 * retracts every fact added since the last push()
+	 * clauses learnt while the scope was open stay, they either don't depend on its facts or mention its selector
+	 */
+	public void pop() {
+		if (numScopes == 0) {
+			throw new IllegalStateException("pop() without a matching push()");
+		}
+		numScopes--;
+		solver.addClause(-selectors[numScopes]);//turns off the scope's clauses for good
+		facts.subList(scopeStarts[numScopes], facts.size()).clear();
+	}
+
+	/**
+	 * @return number of scopes open
+	 */
+	public int getNumOfScopes() {
+		return numScopes;
+	}
+
+	/**
+	 * @return facts that currently hold, in the order they were added
+	 */
+	public List<LogicalExpression> getFacts() {
+		return new ArrayList<>(facts);
+	}
+
+	/**
+	 * @return whether the facts can all be true at once
+	 */
+	public boolean satisfiable() {
+		return solver.solve(Arrays.copyOf(selectors, numScopes));
+	}
+
+	/**
+	 * @param query - sentence to check
+	 * @return whether every assignment satisfying the facts satisfies the query
+	 * @throws IllegalArgumentException if the query isn't a LogicalSentence, which can't be encoded for the solver
+	 */
+	public ThreeValuedVariable entails(LogicalExpression query) {
+		Metrics m = LogicalSentence.getMetrics();
+		long start = m != null ? System.nanoTime() : 0;
+		int[] assumptions = Arrays.copyOf(selectors, numScopes + 1);
+		assumptions[numScopes] = -literalOf(query);//look for a model of the facts that falsifies the query
+		boolean found = solver.solve(assumptions);
+		if (m != null) {
+			m.phaseTimed(Metrics.Phase.ENTAILS, (LogicalSentence) query, System.nanoTime() - start);
+		}
+		return new ThreeValuedVariable(found ? -1 : 1);
+	}
+
+	/**
+	 * @return literal that is true exactly when the sentence is true, encoding the sentence the first time it is seen
+	 */
+	private int literalOf(LogicalExpression le) {
+		if (!(le instanceof LogicalSentence)) {
+			throw new IllegalArgumentException("only LogicalSentences can be added to or asked of a KnowledgeBase");
+		}
+		LogicalSentence sentence = (LogicalSentence) le;
+		Expr expression = sentence.getExpression();
+		if (expression == null) {
+			return sentence.encodeInto(solver, variables);//ill formed, no node to remember it by
+		}
+		Integer lit = literals.get(expression);
+		if (lit == null) {
+			lit = sentence.encodeInto(solver, variables);//the Tseitin clauses only define the literal, so they can stay after the sentence is gone
+			literals.put(expression, lit);
+		}
+		return lit;
+	}
+}
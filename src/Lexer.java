@@ -0,0 +1,118 @@
+import java.util.Arrays;
+
+/**
+ * single pass tokenizer for logical sentences
+ * identifiers are any run of characters that aren't whitespace, operators or parentheses
+ * (e.g. a, x1234, req_ok), they are interned in the SymbolTable and the token is their id (>= 0),
+ * operators, parentheses and the constants 1 and 0 are negative token codes
+ * the operators are ~, &, ^ (xor), |, -> and <->, a - or < that doesn't start one of them is part of an identifier
+ */
+public class Lexer {
+	public static final int NOT = -1;//token codes, the operators' codes are also the opcodes LogicalSentence compiles to
+	public static final int AND = -2;
+	public static final int OR = -3;
+	public static final int LEFT_PAREN = -4;
+	public static final int RIGHT_PAREN = -5;
+	public static final int TRUE = -6;//the identifiers 1 and 0 are the constants, not variables
+	public static final int FALSE = -7;
+	public static final int XOR = -8;//^
+	public static final int IMPLIES = -9;//->
+	public static final int IFF = -10;//<->
+
+	/**
+	 * @param s - a logical sentence as a string
+	 * @return the tokens of the sentence in order, whitespace removed
+	 */
+	public static int[] tokenize(String s) {
+		int[] tokens = new int[s.length()];
+		int n = 0;
+		int i = 0;
+		while (i < s.length()) {
+			int code = codeAt(s, i);
+			if (code != 0) {
+				tokens[n++] = code;
+				i += code == IFF ? 3 : code == IMPLIES ? 2 : 1;
+			} else if (Character.isWhitespace(s.charAt(i))) {
+				i++;
+			} else {
+				int start = i;
+				while (i < s.length() && codeAt(s, i) == 0 && !Character.isWhitespace(s.charAt(i))) {
+					i++;//identifier runs until the next operator, parenthesis or whitespace
+				}
+				tokens[n++] = identifierCode(s.substring(start, i));
+			}
+		}
+		return Arrays.copyOf(tokens, n);
+	}
+
+	/**
+	 * the text of the tokens tokenize() would give, without interning the identifiers
+	 * @param s - a logical sentence as a string
+	 * @return the sentence's tokens separated by single spaces
+	 */
+	public static String normalize(String s) {
+		StringBuilder sb = new StringBuilder(s.length());
+		int i = 0;
+		while (i < s.length()) {
+			int start = i;
+			int code = codeAt(s, i);
+			if (code != 0) {
+				i += code == IFF ? 3 : code == IMPLIES ? 2 : 1;
+			} else if (Character.isWhitespace(s.charAt(i))) {
+				i++;
+				continue;
+			} else {
+				while (i < s.length() && codeAt(s, i) == 0 && !Character.isWhitespace(s.charAt(i))) {
+					i++;
+				}
+			}
+			if (sb.length() > 0) {
+				sb.append(' ');
+			}
+			sb.append(s, start, i);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @param identifier - run of identifier characters
+	 * @return TRUE or FALSE for the constants, otherwise the SymbolTable id of the variable
+	 */
+	public static int identifierCode(String identifier) {
+		if (identifier.equals("1")) {
+			return TRUE;
+		}
+		if (identifier.equals("0")) {
+			return FALSE;
+		}
+		return SymbolTable.intern(identifier);
+	}
+
+	/**
+	 * @param s - the sentence
+	 * @param i - position in the sentence
+	 * @return token code of the operator or parenthesis starting at position i, 0 if none does
+	 */
+	private static int codeAt(String s, int i) {
+		switch (s.charAt(i)) {
+		case '~':
+			return NOT;
+		case '&':
+			return AND;
+		case '|':
+			return OR;
+		case '^':
+			return XOR;
+		case '-':
+			return s.startsWith(">", i + 1) ? IMPLIES : 0;
+		case '<':
+			return s.startsWith("->", i + 1) ? IFF : 0;
+		case '(':
+			return LEFT_PAREN;
+		case ')':
+			return RIGHT_PAREN;
+		default:
+			return 0;
+		}
+	}
+}
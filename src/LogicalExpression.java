@@ -1,5 +1,11 @@
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
 
 public interface LogicalExpression {
 	
@@ -9,18 +15,47 @@ public interface LogicalExpression {
 	 */
 	boolean valid();
 	
+	/**
+	 * @return whether or not sentence is valid, checked on the truth table (with the SAT solver for too many variables to scan)
+	 * @param pool - pool to split the truth table across, null for the calling thread
+	 */
+	boolean valid(ForkJoinPool pool);
+	
 	/**
 	 * @return whether or not sentence is satisfiable
 	 * satisfiable: at least one assignment that satisfies the sentence
 	 */
 	boolean satisfiable();
 	
+	/**
+	 * @return whether or not sentence is satisfiable, checked on the truth table (with the SAT solver for too many variables to scan)
+	 * @param pool - pool to split the truth table across, null for the calling thread
+	 */
+	boolean satisfiable(ForkJoinPool pool);
+	
 	/**
 	 * @return whether or not sentence is contingent
 	 * contingent: at least one assignment that satisfies the sentence, and one that falsifies it
 	 */
 	boolean contingent();
 	
+	/**
+	 * @return whether or not sentence is contingent, checked on the truth table (with the SAT solver for too many variables to scan)
+	 * @param pool - pool to split the truth table across, null for the calling thread
+	 */
+	boolean contingent(ForkJoinPool pool);
+	
+	/**
+	 * @return an assignment of 0/1 to each variable that satisfies the sentence, or null if there is none
+	 */
+	HashMap<String,Integer> findModel();
+	
+	/**
+	 * @return BDD node of the sentence, sentences built in the same manager are equivalent exactly when their nodes are equal
+	 * @param manager - manager that owns the nodes
+	 */
+	int toBdd(BddManager manager);
+	
 	/**
 	 * Equivalent: all assignments that satisfy first sentence satisfy the second and vise versa
 	 * @return ThreeValuedVariable (either true,false, or undetermined) for equivalent sentences
@@ -45,17 +80,126 @@ public interface LogicalExpression {
 	 */
 	boolean[] allPossibleOutcomes();
 	
+	/**
+	 * @return all possible outcomes packed 64 to a long, row i is bit (i % 64) of word (i / 64)
+	 */
+	long[] truthTable();
+	
+	/**
+	 * @return all possible outcomes packed 64 to a long, row i is bit (i % 64) of word (i / 64)
+	 * @throws IllegalStateException if there are too many variables for the table to fit in an array
+	 * @param pool - pool to split the truth table across, null for the calling thread
+	 */
+	long[] truthTable(ForkJoinPool pool);
+	
 	/**
 	 * @return result of evaluation of the sentence
 	 * @param values - values to evaluate on the sentence
 	 */
 	boolean evaluate(HashMap<String,Integer>  values);
 	
+	/**
+	 * @return result of evaluation of the sentence
+	 * @param assignmentBits - packed values, the k-th distinct variable is bit (n - 1 - k) so
+	 * row i of allPossibleOutcomes() is evaluate(i)
+	 */
+	boolean evaluate(long assignmentBits);
+	
+	/**
+	 * @return result of evaluation of the sentence
+	 * @param assignment - value of each distinct variable, in the order of getDistinctVariables()
+	 */
+	boolean evaluate(boolean[] assignment);
+	
+	/**
+	 * evaluates the sentence on an assignment that may leave some variables out, with strong Kleene
+	 * semantics: a part of the sentence is true or false when every way of filling in the missing
+	 * variables below it agrees, e.g. a | b is true once a is true whatever b is
+	 * @return true, false, or undetermined if the assigned variables don't decide the sentence
+	 * @param values - values of the assigned variables, variables missing from the map are unassigned
+	 */
+	ThreeValuedVariable evaluatePartial(HashMap<String,Integer> values);
+	
+	/**
+	 * same as evaluatePartial(HashMap), on packed values
+	 * @return true, false, or undetermined if the assigned variables don't decide the sentence
+	 * @param assignmentBits - packed values, the k-th distinct variable is bit (n - 1 - k)
+	 * @param assignedBits - bits of the variables that are assigned, the others in assignmentBits are ignored
+	 */
+	ThreeValuedVariable evaluatePartial(long assignmentBits, long assignedBits);
+	
+	/**
+	 * @return evaluator that short circuits & and | on an operator tree of the sentence, as it is now
+	 * (later changes such as simplify() don't reach it)
+	 */
+	ShortCircuitEvaluator shortCircuitEvaluator();
+	
+	/**
+	 * evaluates the sentence on many assignments at once, 64 rows per pass over the sentence
+	 * @param columns - values of each distinct variable in the order of getDistinctVariables(),
+	 * row r of a column is bit (r % 64) of word (r / 64)
+	 * @param rows - number of assignments
+	 * @return result of each row, packed the same way as the columns
+	 */
+	long[] evaluateBatch(long[][] columns, int rows);
+	
+	/**
+	 * evaluates the sentence on many assignments at once
+	 * @param columns - values of each distinct variable by name, bit r is the value in row r
+	 * @param rows - number of assignments
+	 * @return rows where the sentence is true
+	 */
+	BitSet evaluateBatch(Map<String,BitSet> columns, int rows);
+	
 	/**
 	 * @return returns 2d array with values that can satisfy the sentence
+	 * @throws IllegalStateException if there are more satisfying assignments than fit in an array
 	 */
 	HashMap<String,Integer>[]  getSatisfyingValues();
 	
+	/**
+	 * @return the satisfying assignments as a small sum of products of prime implicants, each cube
+	 * standing for every row that agrees with it on the variables it tests
+	 */
+	Cover minimizedCover();
+	
+	/**
+	 * @return lazy iterator over the satisfying assignments, packed the way evaluate(long) takes them
+	 * @throws IllegalStateException if there are more variables than bits in a long
+	 */
+	PrimitiveIterator.OfLong satisfyingRows();
+	
+	/**
+	 * @return iterator over every assignment in Gray code order, packed the way evaluate(long) takes them, with
+	 * the value of the sentence on each one from value(); consecutive assignments differ in one variable and
+	 * only the parts of the sentence that depend on it are evaluated again
+	 */
+	GrayCodeIterator grayCodeRows();
+	
+	/**
+	 * @return lazy stream over the satisfying assignments, packed the way evaluate(long) takes them
+	 */
+	LongStream satisfyingStream();
+	
+	/**
+	 * @return number of assignments that satisfy the sentence
+	 */
+	long getNumOfSatisfyingValues();
+	
+	/**
+	 * @return number of assignments to the distinct variables that satisfy the sentence, counted
+	 * without enumerating them, so the number of variables isn't limited by the truth table or the
+	 * thread's stack; it is still #P-hard, and a long chain like a wide | of &s takes time quadratic
+	 * in its size (seconds for a few thousand variables, tens of seconds for ten thousand)
+	 */
+	BigInteger countModels();
+	
+	/**
+	 * @return packed assignment as a map from variable to 0/1
+	 * @param row - packed assignment, the k-th distinct variable is bit (n - 1 - k)
+	 */
+	HashMap<String,Integer> toAssignment(long row);
+	
 	/**
 	 * @return returns variables of a sentence after shunting yard is applied
 	 */
@@ -66,6 +210,12 @@ public interface LogicalExpression {
 	 */
 	void cleanUp();
 	
+	/**
+	 * rewrites the sentence into a simpler equivalent one, variables that simplify away are dropped
+	 * @return how much the sentence shrank
+	 */
+	Simplifier.Report simplify();
+	
 	/**
 	 * 
 	 * @return the number of distinct variables in a sentence
@@ -78,5 +228,11 @@ public interface LogicalExpression {
 	 */
 	String[] getDistinctVariables();
 	
+	/**
+	 * 
+	 * @return the distinct variables as a set of SymbolTable ids
+	 */
+	BitSet getVariableSet();
+	
 	boolean hasOtherVariables(ArrayList<String> variables);
 }
@@ -1,24 +1,107 @@
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.PrimitiveIterator;
 import java.util.Scanner;
-import java.util.Stack;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 public class LogicalSentence implements LogicalExpression {
 	
 	String[] sentence;//the logical sentence
-	private static final String[] OPERATORS = { "~", "&", "|"};//operators
-	private static final String[] ASSOCIATIVITIES = {"r","l","l"};//associativities of the operators (right or left)
+	private static final String[] OPERATORS = { "~", "&", "^", "|", "->", "<->"};//operators
+	private static final int[] OPERATOR_CODES = {Lexer.NOT, Lexer.AND, Lexer.XOR, Lexer.OR, Lexer.IMPLIES, Lexer.IFF};//Lexer code of each operator
+	private static final boolean[] RIGHT_ASSOCIATIVE = {true, false, false, false, true, true};//associativities of the operators (right or left)
+	static final int OP_NOT = Lexer.NOT;//opcodes of the compiled program (the Lexer codes), variables are stored as their slot (>= 0)
+	static final int OP_AND = Lexer.AND;
+	static final int OP_OR = Lexer.OR;
+	static final int OP_XOR = Lexer.XOR;
+	static final int OP_IMPLIES = Lexer.IMPLIES;
+	static final int OP_IFF = Lexer.IFF;
+	static final int OP_TRUE = Lexer.TRUE;//opcodes of the constants 1 and 0
+	static final int OP_FALSE = Lexer.FALSE;
+	private static final int MAX_TRUTH_TABLE_VARIABLES = 20;//sentences with more variables go to the SAT solver
+	private static final int MAX_TABLE_VARIABLES = 36;//the words of a bigger truth table don't fit in an array
+	private static final int PARALLEL_MIN_VARIABLES = 16;//smallest truth table that is worth splitting across threads
+	private static final int EXACT_COVER_MAX_VARIABLES = 10;//minimizedCover() uses Quine-McCluskey up to this many variables
+	static final int SEEN_TRUE = 1;//flags for scanOutcomes()
+	static final int SEEN_FALSE = 2;
+	private static volatile ForkJoinPool parallelPool;//pool for large truth tables, null to stay on the calling thread
+	private static volatile Metrics metrics;//receives counts and timings, null while instrumentation is off
+	private static final long[] LOW_PATTERNS = {0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+			0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L};//bit b of the row index across the 64 rows of a word
+	
+	private String[] slots;//distinct variables, a variable's index in this array is its slot
+	private int[] slotSymbols;//SymbolTable id of the variable in each slot
+	private BitSet variableSet;//SymbolTable ids of the distinct variables
+	private Expr root;//the sentence as a node of the shared expression DAG, null if not well formed
+	private int[] code;//the DAG compiled into one register per distinct subformula, 3 ints per register:
+						//opcode (the slot for variables) and the registers of the operands
+	private int numOfRegisters;
+	private int rootRegister;//register holding the value of the whole sentence
+	private boolean wellFormed;//whether the RPN reduces to exactly one expression
+	private static final ThreadLocal<boolean[]> registerScratch = ThreadLocal.withInitial(() -> new boolean[0]);//registers of run() for large sentences
+	
+	/**
+	 * sets the pool that truth tables with at least 16 variables are evaluated on, when the
+	 * methods that don't take a pool are called
+	 * @param pool - fork/join pool to use, or null to evaluate on the calling thread
+	 */
+	public static void setParallelPool(ForkJoinPool pool) {
+		parallelPool = pool;
+	}
+	
+	/**
+	 * sets where the evaluator reports what it does and how long it takes (see Metrics)
+	 * @param m - metrics to report to, or null to turn instrumentation off
+	 */
+	public static void setMetrics(Metrics m) {
+		metrics = m;
+	}
+	
+	/**
+	 * @return the metrics set with setMetrics(), null if instrumentation is off
+	 */
+	public static Metrics getMetrics() {
+		return metrics;
+	}
 	
 	/**
 	 * constructor that takes a string s, and puts sentence 
 	 * in RPN form - inside an array
 	 * @param s - a logical sentence as a string
+	 * @throws IllegalArgumentException if the parentheses don't match
 	 */
 	public LogicalSentence(String s) {
-		sentence = s.split("");//split string into an array
-		cleanUp();//take out the blank spaces 
-		shuntingYard();//put sentence in reverse polish notation
+		Metrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0;
+		int[] tokens = Lexer.tokenize(s);
+		int[] rpn = shuntingYard(tokens);//split into tokens and put sentence in reverse polish notation
+		sentence = toStrings(rpn);
+		compile(rpn);//turn the RPN into an int program so evaluation doesn't touch strings
+		if(m != null){
+			m.sentenceParsed(tokens.length);
+			m.phaseTimed(Metrics.Phase.PARSE, this, System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * @param s - a logical sentence as a string
+	 * @param simplify - whether to simplify() the sentence before it is used
+	 */
+	public LogicalSentence(String s, boolean simplify) {
+		this(s);
+		if (simplify && wellFormed) {
+			simplify();
+		}
 	}
 	
 	/**
@@ -34,7 +117,14 @@ public class LogicalSentence implements LogicalExpression {
 	 * @param sentence - sentence that this LogicalExpression object will hold
 	 */
 	public void setSentence(String[] sentence) {
+		Metrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0;
 		this.sentence = sentence;
+		compile(toTokens(sentence));
+		if(m != null){
+			m.sentenceParsed(sentence.length);
+			m.phaseTimed(Metrics.Phase.PARSE, this, System.nanoTime() - start);
+		}
 	}
 	
 	/**
@@ -43,13 +133,20 @@ public class LogicalSentence implements LogicalExpression {
 	 */
 	@Override
 	public boolean valid() {
-		boolean[] outcomes = allPossibleOutcomes();//gets all possible outcomes
-		for(int i = 0;i < outcomes.length;i++){
-			if(!outcomes[i]){
-				return false;//if there is a value in the outcomes that is false, sentence is not valid
-			}
+		return valid(defaultPool());
+	}
+	
+	/**
+	 * checks validity on the truth table, or with the SAT solver when there are too many variables for one
+	 * @param pool - pool to split the truth table across, null to evaluate on the calling thread
+	 * @return whether or not sentence is valid
+	 */
+	@Override
+	public boolean valid(ForkJoinPool pool) {
+		if(slots.length > MAX_TRUTH_TABLE_VARIABLES){
+			return findAssignment(false) == null;//valid when the negation is unsatisfiable
 		}
-		return true;//if all values inside possible outcomes are true, the sentence is valid
+		return (scanOutcomes(SEEN_FALSE, pool) & SEEN_FALSE) == 0;//if there is a row in the outcomes that is false, sentence is not valid
 	}
 	
 	/**
@@ -58,13 +155,20 @@ public class LogicalSentence implements LogicalExpression {
 	 */
 	@Override
 	public boolean satisfiable() {
-		boolean[] outcomes = allPossibleOutcomes();//gets all possible outcomes
-		for(int i = 0;i < outcomes.length;i++){
-			if(outcomes[i]){
-				return true;//if there is at least on 'true' n the possible outcomes, the sentence is satisfiable
-			}
+		return satisfiable(defaultPool());
+	}
+	
+	/**
+	 * checks satisfiability on the truth table, or with the SAT solver when there are too many variables for one
+	 * @param pool - pool to split the truth table across, null to evaluate on the calling thread
+	 * @return whether or not sentence is satisfiable
+	 */
+	@Override
+	public boolean satisfiable(ForkJoinPool pool) {
+		if(slots.length > MAX_TRUTH_TABLE_VARIABLES){
+			return findAssignment(true) != null;
 		}
-		return false;//if there are no true values in the outcome, sentence is not satisfiable
+		return (scanOutcomes(SEEN_TRUE, pool) & SEEN_TRUE) != 0;//if there is at least one 'true' in the possible outcomes, the sentence is satisfiable
 	}
 	
 	/**
@@ -73,37 +177,326 @@ public class LogicalSentence implements LogicalExpression {
 	 */
 	@Override
 	public boolean contingent() {
-		if(!valid() && satisfiable()){//if the sentence is not valid but satisfiable, it is contingent
-			return true;
-		}else{//otherwise it is not contingent
-			return false;
+		return contingent(defaultPool());
+	}
+	
+	/**
+	 * checks contingency on the truth table, or with the SAT solver when there are too many variables for one
+	 * @param pool - pool to split the truth table across, null to evaluate on the calling thread
+	 * @return whether or not sentence is contingent
+	 */
+	@Override
+	public boolean contingent(ForkJoinPool pool) {
+		if(slots.length > MAX_TRUTH_TABLE_VARIABLES){
+			return findAssignment(true) != null && findAssignment(false) != null;
 		}
+		return scanOutcomes(SEEN_TRUE | SEEN_FALSE, pool) == (SEEN_TRUE | SEEN_FALSE);//if the sentence is not valid but satisfiable, it is contingent
 	}
 	
 	/**
-	 * @return returns a hashmap array with true/false values that can satisfy the sentence
+	 * @return an assignment (variable to 0/1) that satisfies the sentence, or null if it is unsatisfiable
 	 */
 	@Override
-	public HashMap<String,Integer>[] getSatisfyingValues(){
-		HashMap<String,Integer>[] allTruthAssignments = allTruthAssignments();//all possible truth assignments for the sentence
-		boolean [] outcomes = allPossibleOutcomes();//all possible outcomes for the sentence
-		int numOfTrue = 0;
-		//get the number of outcomes that are true (of all the possible outcomes)
-		for(int i = 0;i < outcomes.length;i++){
-			if(outcomes[i]){
-				numOfTrue++;
+	public HashMap<String,Integer> findModel() {
+		boolean[] assignment = findAssignment(true);
+		if(assignment == null){
+			return null;
+		}
+		HashMap<String,Integer> model = new HashMap<>();
+		for(int i = 0;i < slots.length;i++){
+			model.put(slots[i], assignment[i] ? 1 : 0);
+		}
+		Metrics m = metrics;
+		if(m != null){
+			m.modelsReturned(1);
+		}
+		return model;
+	}
+	
+	/**
+	 * builds the sentence as a BDD, equivalent sentences built in the same manager get the same node
+	 * @param manager - manager that owns the nodes
+	 * @return node of the sentence (BddManager.TRUE if valid, BddManager.FALSE if unsatisfiable)
+	 */
+	@Override
+	public int toBdd(BddManager manager) {
+		if(!wellFormed){
+			System.out.println("User input invalid");
+			return BddManager.FALSE;//every assignment evaluates to false
+		}
+		Metrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0;
+		int[] variables = new int[slots.length];
+		for(int i = 0;i < slots.length;i++){
+			variables[i] = manager.variable(slots[i]);
+		}
+		int[] nodes = new int[numOfRegisters];//BDD of each register
+		for(int r = 0, j = 0;r < numOfRegisters;r++, j += 3){
+			int op = code[j];
+			if(op >= 0){
+				nodes[r] = variables[op];
+			}else if(op == OP_NOT){
+				nodes[r] = manager.not(nodes[code[j + 1]]);
+			}else if(op == OP_AND){
+				nodes[r] = manager.and(nodes[code[j + 1]], nodes[code[j + 2]]);
+			}else if(op == OP_OR){
+				nodes[r] = manager.or(nodes[code[j + 1]], nodes[code[j + 2]]);
+			}else if(op == OP_XOR){
+				nodes[r] = manager.xor(nodes[code[j + 1]], nodes[code[j + 2]]);
+			}else if(op == OP_IMPLIES){
+				nodes[r] = manager.implies(nodes[code[j + 1]], nodes[code[j + 2]]);
+			}else if(op == OP_IFF){
+				nodes[r] = manager.iff(nodes[code[j + 1]], nodes[code[j + 2]]);
+			}else{
+				nodes[r] = op == OP_TRUE ? BddManager.TRUE : BddManager.FALSE;
 			}
 		}
-		HashMap<String,Integer>[] satisfyingValues = new HashMap[numOfTrue];//HashMap array to hold assignments that satisfy the sentence
-		int index = 0;
-		for(int i = 0;i < outcomes.length;i++){
-			if(outcomes[i]){//if an assignment satisfies the sentence, store the truth assignment that made the sentence true
-				satisfyingValues[index] = allTruthAssignments[i];
-				index++;
+		if(m != null){
+			m.phaseTimed(Metrics.Phase.BDD, this, System.nanoTime() - start);
+		}
+		return nodes[rootRegister];
+	}
+	
+	/**
+	 * uses the SAT solver on the Tseitin encoding of the sentence
+	 * @param value - value the sentence should have
+	 * @return assignment indexed by slot that gives the sentence that value, or null if there isn't one
+	 */
+	private boolean[] findAssignment(boolean value) {
+		Metrics m = metrics;
+		if(m == null){
+			return solve(value);
+		}
+		long start = System.nanoTime();
+		boolean[] assignment = solve(value);
+		m.phaseTimed(Metrics.Phase.SOLVE, this, System.nanoTime() - start);
+		return assignment;
+	}
+	
+	/**
+	 * findAssignment() without the timing
+	 */
+	private boolean[] solve(boolean value) {
+		if(!wellFormed){
+			System.out.println("User input invalid");
+			return value ? null : new boolean[slots.length];//every assignment evaluates to false
+		}
+		SatSolver solver = new SatSolver();
+		int[] variables = new int[slots.length];
+		for(int i = 0;i < slots.length;i++){
+			variables[i] = solver.newVariable();
+		}
+		int root = Tseitin.encode(this, solver, variables);
+		solver.addClause(value ? root : -root);
+		if(!solver.solve()){
+			return null;
+		}
+		boolean[] assignment = new boolean[slots.length];
+		for(int i = 0;i < slots.length;i++){
+			assignment[i] = solver.getModelValue(variables[i]);
+		}
+		return assignment;
+	}
+	
+	/**
+	 * evaluates the truth table 64 rows at a time without storing it, and stops as soon as
+	 * every kind of row asked for has been seen
+	 * @param wanted - SEEN_TRUE and/or SEEN_FALSE
+	 * @param pool - pool to split the truth table across, null to evaluate on the calling thread
+	 * @return SEEN_TRUE if a satisfying row was seen, plus SEEN_FALSE if a falsifying row was seen
+	 */
+	private int scanOutcomes(int wanted, ForkJoinPool pool) {
+		if(!wellFormed){
+			System.out.println("User input invalid");
+			return SEEN_FALSE;//every row evaluates to false
+		}
+		Metrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0;
+		long words = getNumOfWords();
+		long scanned = words;//the parallel scan's workers stop at different points, so it counts as the whole table
+		int seen = 0;
+		if(pool != null){
+			seen = ParallelTruthTable.scan(this, wanted, pool);
+		}else{
+			long mask = wordMask();
+			long[] registers = new long[numOfRegisters];
+			long i = 0;
+			for(;i < words && (seen & wanted) != wanted;i++){
+				long word = evaluateWord(i, registers) & mask;
+				if(word != 0){
+					seen |= SEEN_TRUE;
+				}
+				if(word != mask){
+					seen |= SEEN_FALSE;
+				}
 			}
+			scanned = i;
+		}
+		if(m != null){
+			m.assignmentsGenerated(Math.min(scanned << 6, 1L << slots.length));
+			m.phaseTimed(Metrics.Phase.SCAN, this, System.nanoTime() - start);
+		}
+		return seen;
+	}
+	
+	/**
+	 * Quine-McCluskey on the truth table for few variables, otherwise the Espresso-style heuristic on the BDD
+	 * @return the satisfying assignments as a small sum of products of prime implicants
+	 */
+	@Override
+	public Cover minimizedCover(){
+		if(!wellFormed){
+			System.out.println("User input invalid");
+			return new Cover(slots.clone(), new long[0], new long[0]);//every assignment evaluates to false
+		}
+		if(slots.length > Cover.MAX_VARIABLES){
+			throw new IllegalStateException("a cover holds at most " + Cover.MAX_VARIABLES + " variables");
+		}
+		Metrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0;
+		Cover cover;
+		if(slots.length <= EXACT_COVER_MAX_VARIABLES){
+			cover = CoverMinimizer.quineMcCluskey(slots.clone(), truthTable(null));
+		}else{
+			BddManager manager = new BddManager(slots);
+			cover = CoverMinimizer.espresso(slots.clone(), manager, toBdd(manager));
+		}
+		if(m != null){
+			m.phaseTimed(Metrics.Phase.COVER, this, System.nanoTime() - start);
+		}
+		return cover;
+	}
+	
+	/**
+	 * @return returns a hashmap array with true/false values that can satisfy the sentence
+	 * @throws IllegalStateException if there are more satisfying assignments than fit in an array
+	 */
+	@Override
+	public HashMap<String,Integer>[] getSatisfyingValues(){
+		BigInteger count = countModels();
+		if(count.compareTo(BigInteger.valueOf(Integer.MAX_VALUE)) > 0){
+			throw new IllegalStateException(count + " satisfying assignments don't fit in an array, use satisfyingRows() or minimizedCover()");
+		}
+		HashMap<String,Integer>[] satisfyingValues = new HashMap[count.intValue()];//HashMap array to hold assignments that satisfy the sentence
+		PrimitiveIterator.OfLong rows = satisfyingRows();
+		for(int i = 0;i < satisfyingValues.length;i++){
+			satisfyingValues[i] = toAssignment(rows.nextLong());//only satisfying rows are turned into maps
+		}
+		Metrics m = metrics;
+		if(m != null){
+			m.modelsReturned(satisfyingValues.length);
 		}
 		return satisfyingValues;//return the hashmap array with assignments that satisfy this sentence
 	}
+	
+	/**
+	 * @return iterator over the satisfying rows in increasing order, each row is the packed assignment
+	 * evaluate(long) takes, rows are evaluated 64 at a time as the iterator advances
+	 */
+	@Override
+	public PrimitiveIterator.OfLong satisfyingRows(){
+		if(slots.length > Cover.MAX_VARIABLES){
+			throw new IllegalStateException("rows of at most " + Cover.MAX_VARIABLES + " variables can be packed into a long");
+		}
+		if(!wellFormed){
+			System.out.println("User input invalid");
+			return new SatisfyingRowIterator(this, 0);//every assignment evaluates to false
+		}
+		return new SatisfyingRowIterator(this, getNumOfWords());
+	}
+	
+	/**
+	 * @return iterator over every row in Gray code order, each row is the packed assignment evaluate(long)
+	 * takes and differs from the one before in one variable, so only the registers depending on it run again
+	 */
+	@Override
+	public GrayCodeIterator grayCodeRows(){
+		if(!wellFormed){
+			System.out.println("User input invalid");
+			return new GrayCodeIterator(this, 0);
+		}
+		if(slots.length > GrayCodeIterator.MAX_VARIABLES){
+			throw new IllegalStateException("the rows of at most " + GrayCodeIterator.MAX_VARIABLES + " variables can be walked");
+		}
+		return new GrayCodeIterator(this, 1L << slots.length);
+	}
+	
+	/**
+	 * @return lazy stream of the satisfying rows, so limit() or findFirst() only evaluates as much of
+	 * the truth table as needed
+	 */
+	@Override
+	public LongStream satisfyingStream(){
+		return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(satisfyingRows(),
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+	}
+	
+	/**
+	 * @return number of assignments that satisfy the sentence, counted without keeping any of them
+	 * (by countModels() when there are too many variables to scan)
+	 * @throws ArithmeticException if the count doesn't fit in a long
+	 */
+	@Override
+	public long getNumOfSatisfyingValues(){
+		if(!wellFormed){
+			System.out.println("User input invalid");
+			return 0;
+		}
+		if(slots.length > MAX_TRUTH_TABLE_VARIABLES){
+			return countModels().longValueExact();
+		}
+		long[] registers = new long[numOfRegisters];
+		long mask = wordMask();
+		long count = 0;
+		for(long i = 0;i < getNumOfWords();i++){
+			count += Long.bitCount(evaluateWord(i, registers) & mask);
+		}
+		return count;
+	}
+	
+	/**
+	 * @return number of assignments that satisfy the sentence, from the truth table for small sentences
+	 * and from the ModelCounter on the Tseitin encoding for bigger ones (the encoding's extra variables
+	 * are fixed by the sentence's variables, so they don't change the count)
+	 */
+	@Override
+	public BigInteger countModels(){
+		if(!wellFormed){
+			System.out.println("User input invalid");
+			return BigInteger.ZERO;
+		}
+		Metrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0;
+		BigInteger count;
+		if(slots.length <= MAX_TRUTH_TABLE_VARIABLES){
+			count = BigInteger.valueOf(getNumOfSatisfyingValues());
+		}else{
+			ModelCounter counter = new ModelCounter();
+			int[] variables = new int[slots.length];
+			for(int i = 0;i < slots.length;i++){
+				variables[i] = counter.newVariable();
+			}
+			counter.addClause(Tseitin.encode(this, counter, variables));
+			count = counter.count();
+		}
+		if(m != null){
+			m.phaseTimed(Metrics.Phase.COUNT, this, System.nanoTime() - start);
+		}
+		return count;
+	}
+	
+	/**
+	 * @param row - packed assignment, the variable in slot k is bit (n - 1 - k)
+	 * @return the assignment as a map from variable to 0/1
+	 */
+	@Override
+	public HashMap<String,Integer> toAssignment(long row){
+		HashMap<String,Integer> assignment = new HashMap<>();
+		for(int i = 0;i < slots.length;i++){
+			assignment.put(slots[i], (int)((row >>> (slots.length - 1 - i)) & 1));
+		}
+		return assignment;
+	}
 
 	/**
 	 * @return returns the order of the variables in the sentence after shunting yard is applied
@@ -123,242 +516,202 @@ public class LogicalSentence implements LogicalExpression {
 	
 	/**
 	 * 
-	 * @return a string[] with distinct variables
+	 * @return a string[] with distinct variables, in the order they first appear after shunting yard
 	 */
 	public String[] getDistinctVariables(){
-		String[] variablesInOrder = getVariablesInOrder();//get variables with duplicates (e.g inside a&a|b)
-		for(int i = 0;i < variablesInOrder.length;i++){
-			for(int j = 0;j < variablesInOrder.length;j++){
-				if(i != j){
-					if(variablesInOrder[i].equals(variablesInOrder[j])){
-						variablesInOrder[j] = " ";//if there is a duplicate, get rid of it by turning it into a space
-					}
-				}
-			}
-		}
-		variablesInOrder = cleanUp(variablesInOrder);//get rid of the blank spaces
-		return variablesInOrder;
+		return slots.clone();
 	}
+	
+	/**
+	 * @return the distinct variables as a set of SymbolTable ids, shared by every sentence so
+	 * variable sets of different sentences can be compared with BitSet operations
+	 */
+	@Override
+	public BitSet getVariableSet(){
+		return (BitSet)variableSet.clone();
+	}
+	
 	/**
 	 * Equivalent: all assignments that satisfy first sentence satisfy the second and vise versa
 	 * @return ThreeValuedVariable (either true,false, or undetermined) for equivalent sentences
 	 * @param le - logical sentence to compare sentence with
+	 * @throws IllegalArgumentException if le isn't a LogicalSentence and the two have too many variables between them to compare truth tables
 	 */
 	@Override
 	public ThreeValuedVariable equivalent(LogicalExpression le) {
-		if(entails(le).getValue().equalsIgnoreCase("True") 
-				&& le.entails(this).getValue().equalsIgnoreCase("True")){//if sentences entail one another, they are equivalent
-			return new ThreeValuedVariable(1);//true
-		}else if(entails(le).getValue().equalsIgnoreCase("Undetermined")  
-				|| le.entails(this).getValue().equalsIgnoreCase("Undetermined")){//if entail is undetermined, equivalent cannot be determined either
-			return new ThreeValuedVariable(0);//undetermined
-		}else{//else means not equivalent
+		if(!(le instanceof LogicalSentence) ? hasCounterexampleInTables(le, true) : hasCounterexample((LogicalSentence)le, true)){//an assignment where the sentences differ
 			return new ThreeValuedVariable(-1);//false
 		}
+		return new ThreeValuedVariable(1);//true
 	}
 	
 	/**
 	 * Entail: Assignments that satisfy first sentence also satisfy the second
 	 * @return ThreeValuedVariable (either true,false, or undetermined) for one sentence entailing the other
 	 * @param le - logical sentence to compare sentence with
+	 * @throws IllegalArgumentException if le isn't a LogicalSentence and the two have too many variables between them to compare truth tables
 	 */
 	@Override
 	public ThreeValuedVariable entails(LogicalExpression le) {
-		if(getNumOfDistinctVariablesInSentence() == le.getNumOfDistinctVariablesInSentence()
-				&& isSameVariables(le)){
-			HashMap<String,Integer>[] satisfyingFirst = getSatisfyingValues();//assignments that satisfy the first
-			
-			boolean [] outcomesOfSecond = new boolean[satisfyingFirst.length];//array to store outcomes of testing on the second sentence
-			for(int i = 0;i < satisfyingFirst.length;i++){
-				outcomesOfSecond[i] = le.evaluate(satisfyingFirst[i]);//test assignment that satisfy the first sentence, on the second sentence
-			}
-			for(int i = 0;i < outcomesOfSecond.length;i++){
-				if(!outcomesOfSecond[i]){//if there is an assignment that results in 'false', no entail
-					return new ThreeValuedVariable(-1);//false
-				}
-			}
-			return new ThreeValuedVariable(1);//if all outcomes of testing on second sentence are true, the first entails the second
-		}else if(!hasOtherVariables(getSameVariables(le)) && le.hasOtherVariables(getSameVariables(this))){
-			HashMap<String,Integer>[] satisfyingFirst = getSatisfyingValues();//assignments that satisfy the first
-			
-			int difference = le.getNumOfDistinctVariablesInSentence() - getNumOfDistinctVariablesInSentence();
-			String[] temp = new String[difference];//array to store variables not in the first sentence
-			String[] first = getDistinctVariables();//first variables
-			String[] second = le.getDistinctVariables();//second varibilaes
-			int index = 0;
-			for(int i = 0;i < second.length;i++){
-				if(!contains(first,second[i])){//if the first sentence doesn't contain the element, store it
-					temp[index] = second[i];
-					index++;
-				}
-			}
-			String fakeSentence = "";
-			index = 0;
-			for(int i = 0;i < (temp.length * 2) - 1;i++){
-				if(i % 2 == 0){
-					fakeSentence += temp[index];
-					index++;
-				}else{
-					fakeSentence += "&";
-				}
-			}//making a "fake sentence" using variables in the second sentence but not the first
-			HashMap<String,Integer>[] secondPart = new LogicalSentence(fakeSentence).allTruthAssignments();//all possible truth values for second sentence
-			HashMap<String,Integer>[] testOnSecond = new HashMap[satisfyingFirst.length * secondPart.length];//values to test on second sentence
-			for(int i = 0;i < testOnSecond.length;i++){
-				testOnSecond[i] = new HashMap<String,Integer>();
-			}
-			index = 0;
-			for(int i = 0;i < satisfyingFirst.length;i++){
-				for(int j = 0;j < secondPart.length;j++){
-					testOnSecond[index].putAll(satisfyingFirst[i]);
-					testOnSecond[index].putAll(secondPart[j]);//merge hashmap satisfyingfirst and secondpart, so we have values
-															//to assign to all variables in the second sentence
-					index++;
-				}
-			}
-			boolean [] outcomesOfSecond = new boolean[testOnSecond.length];//array to store outcomes of testing on the second sentence
-			for(int i = 0;i < testOnSecond.length;i++){
-				outcomesOfSecond[i] = le.evaluate(testOnSecond[i]);//test values on second sentence
-			}
-			for(int i = 0;i < outcomesOfSecond.length;i++){
-				if(!outcomesOfSecond[i]){
-					return new ThreeValuedVariable(-1);//does not entail if there is any false outcome
-				}
-			}
-			return new ThreeValuedVariable(1);//true
-		}else if(hasOtherVariables(getSameVariables(le)) && !le.hasOtherVariables(getSameVariables(this))){
-			HashMap<String,Integer>[] satisfyingFirst = getSatisfyingValues();//assignments that satisfy the first
-			
-			String[] first = getDistinctVariables();//first variables
-			String[] second = le.getDistinctVariables();//second variables
-			String[] temp = new String[second.length];//array to store variables in both sentences
-
-			int index = 0;
-			for(int i = 0;i < first.length;i++){
-				if(contains(second,first[i])){//if the first sentence contains the element, store it
-					temp[index] = first[i];
-					index++;
-				}
-			}
-			HashMap<String,Integer>[] testOnSecond = new HashMap[satisfyingFirst.length];//values to test on second sentence
-			for(int i = 0;i < testOnSecond.length;i++){
-				testOnSecond[i] = new HashMap<String,Integer>();
-				for(int j = 0;j < temp.length;j++){
-					testOnSecond[i].put(temp[j], satisfyingFirst[i].get(temp[j]));//take truth assignements from satisfyingfirst hashmap
-																				//which satisfy the first sentence
-				}
-			}
-			boolean [] outcomesOfSecond = new boolean[testOnSecond.length];//array to store outcomes of testing on the second sentence
-			for(int i = 0;i < testOnSecond.length;i++){
-				outcomesOfSecond[i] = le.evaluate(testOnSecond[i]);//test on second sentence
-			}
-			for(int i = 0;i < outcomesOfSecond.length;i++){
-				if(!outcomesOfSecond[i]){//if there are any false outcomes, does not entail
-					return new ThreeValuedVariable(-1);
-				}
-			}
-			return new ThreeValuedVariable(1);//true
-		}else if(hasOtherVariables(getSameVariables(le)) && le.hasOtherVariables(getSameVariables(this))){
-			ArrayList<String> same = getSameVariables(le);
-			
-			HashMap<String,Integer>[] satisfyingFirst = getSatisfyingValues();//assignments that satisfy the first
-			HashMap<String,Integer>[] firstPartOfSecond = new HashMap[satisfyingFirst.length];
-			for(int i = 0;i < satisfyingFirst.length;i++){
-				firstPartOfSecond[i] = new HashMap<String,Integer>();
-				for(int j = 0;j < same.size();j++){
-					firstPartOfSecond[i].put(same.get(j), satisfyingFirst[i].get(same.get(j)));
-				}
-			}
-			ArrayList<String> temp = new ArrayList<>();
-			String[] secondVariables = le.getDistinctVariables();
-			for(int i = 0;i < same.size();i++){
-				for(int j = 0;j < secondVariables.length;j++){
-					if(!secondVariables[j].equals(same.get(i))){
-						temp.add(secondVariables[j]);
-					}
-				}
-			}
-			
-			String fakeSentence = "";
-			int index = 0;
-			for(int i = 0;i < (temp.size() * 2) - 1;i++){
-				if(i % 2 == 0){
-					fakeSentence += temp.get(index);
-					index++;
-				}else{
-					fakeSentence += "&";
-				}
-			}
-			HashMap<String,Integer>[] secondPart = new LogicalSentence(fakeSentence).allTruthAssignments();//all possible truth values for second sentence
-			HashMap<String,Integer>[] testOnSecond = new HashMap[satisfyingFirst.length * secondPart.length];//values to test on second sentence
-			for(int i = 0;i < testOnSecond.length;i++){
-				testOnSecond[i] = new HashMap<String,Integer>();
-			}
-			index = 0;
-			for(int i = 0;i < satisfyingFirst.length;i++){
-				for(int j = 0;j < secondPart.length;j++){
-					testOnSecond[index].putAll(satisfyingFirst[i]);
-					testOnSecond[index].putAll(secondPart[j]);//merge hashmap satisfyingfirst and secondpart, so we have values
-															//to assign to all variables in the second sentence
-					index++;
-				}
+		if(!(le instanceof LogicalSentence) ? hasCounterexampleInTables(le, false) : hasCounterexample((LogicalSentence)le, false)){//an assignment satisfying this sentence but not le
+			return new ThreeValuedVariable(-1);//false
+		}
+		return new ThreeValuedVariable(1);//true
+	}
+	
+	/**
+	 * asks the SAT solver for an assignment over the variables of both sentences that satisfies
+	 * this sentence and falsifies the other (this & ~other), or if both is true, that makes the two sentences differ
+	 * @param other - sentence to compare with
+	 * @param both - look for a counterexample in both directions
+	 * @return whether there is such an assignment
+	 */
+	private boolean hasCounterexample(LogicalSentence other, boolean both) {
+		Metrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0;
+		SatSolver solver = new SatSolver();
+		HashMap<String,Integer> variables = new HashMap<>();//variables of both sentences share solver variables by name
+		int first = encodeInto(solver, variables);
+		int second = other.encodeInto(solver, variables);
+		if(both){
+			solver.addClause(first, second);//first xor second
+			solver.addClause(-first, -second);
+		}else{
+			solver.addClause(first);
+			solver.addClause(-second);
+		}
+		boolean found = solver.solve();
+		if(m != null){
+			m.phaseTimed(both ? Metrics.Phase.EQUIVALENT : Metrics.Phase.ENTAILS, this, System.nanoTime() - start);
+		}
+		return found;
+	}
+	
+	/**
+	 * the same as hasCounterexample() for a LogicalExpression the solver can't encode, on the truth tables of
+	 * both over the variables of both: this sentence's variables come first, so its row is the top bits of a row
+	 * @param other - expression to compare with
+	 * @param both - look for a counterexample in both directions
+	 * @return whether there is such an assignment
+	 */
+	private boolean hasCounterexampleInTables(LogicalExpression other, boolean both) {
+		String[] otherVariables = other.getDistinctVariables();
+		ArrayList<String> union = new ArrayList<>(Arrays.asList(slots));
+		int[] position = new int[otherVariables.length];//position of each of other's variables in union
+		for(int k = 0;k < otherVariables.length;k++){
+			position[k] = union.indexOf(otherVariables[k]);
+			if(position[k] < 0){
+				position[k] = union.size();
+				union.add(otherVariables[k]);
 			}
-			boolean [] outcomesOfSecond = new boolean[testOnSecond.length];//array to store outcomes of testing on the second sentence
-			for(int i = 0;i < testOnSecond.length;i++){
-				outcomesOfSecond[i] = le.evaluate(testOnSecond[i]);//test values on second sentence
+		}
+		int n = union.size();
+		if(n > MAX_TRUTH_TABLE_VARIABLES){
+			throw new IllegalArgumentException("only LogicalSentences can be compared with more than " + MAX_TRUTH_TABLE_VARIABLES + " variables between them");
+		}
+		long[] mine = truthTable(null);
+		long[] theirs = other.truthTable();
+		for(long row = 0;row < 1L << n;row++){
+			long myRow = row >>> (n - slots.length);
+			long theirRow = 0;
+			for(int k = 0;k < position.length;k++){
+				theirRow = theirRow << 1 | ((row >>> (n - 1 - position[k])) & 1);
 			}
-			for(int i = 0;i < outcomesOfSecond.length;i++){
-				if(!outcomesOfSecond[i]){
-					return new ThreeValuedVariable(-1);//does not entail if there is any false outcome
-				}
+			boolean first = ((mine[(int)(myRow >>> 6)] >>> (myRow & 63)) & 1) != 0;
+			boolean second = ((theirs[(int)(theirRow >>> 6)] >>> (theirRow & 63)) & 1) != 0;
+			if(first ? !second : both && second){
+				return true;
 			}
-			return new ThreeValuedVariable(1);//true
-		}else{
-			return new ThreeValuedVariable(0);//else, entails cannot be undetermined
 		}
+		return false;
 	}
-	public boolean isSameVariables(LogicalExpression le){
-		String[] first = getDistinctVariables();
-		String[] second = le.getDistinctVariables();
-		for(int i = 0;i < first.length;i++){
-			for(int j = 0;j < second.length;j++){
-				if(!first[i].equals(second[j])){
-					return false;
-				}
-			}
+	
+	/**
+	 * adds the Tseitin encoding of this sentence to a solver
+	 * @param solver - solver to add the clauses to
+	 * @param variables - solver variable of each variable name, new variables are added to it
+	 * @return literal that is true exactly when this sentence is true
+	 */
+	int encodeInto(ClauseSink solver, HashMap<String,Integer> variables) {
+		if(!wellFormed){
+			System.out.println("User input invalid");
+			int constant = solver.newVariable();
+			solver.addClause(-constant);//every assignment evaluates to false
+			return constant;
 		}
-		for(int i = 0;i < second.length;i++){
-			for(int j = 0;j < first.length;j++){
-				if(!second[i].equals(first[j])){
-					return false;
-				}
+		int[] slotVariables = new int[slots.length];
+		for(int i = 0;i < slots.length;i++){
+			Integer var = variables.get(slots[i]);
+			if(var == null){
+				var = solver.newVariable();
+				variables.put(slots[i], var);
 			}
+			slotVariables[i] = var;
 		}
-		return true;
+		return Tseitin.encode(this, solver, slotVariables);
 	}
 	
+	/**
+	 * @param le - sentence to compare with
+	 * @return whether both sentences have exactly the same variables
+	 */
+	public boolean isSameVariables(LogicalExpression le){
+		return variableSet.equals(variableSetOf(le));
+	}
+	
+	/**
+	 * @param le - sentence to compare with
+	 * @return variables of this sentence that are also in le, in the order of getDistinctVariables()
+	 */
 	public ArrayList<String> getSameVariables(LogicalExpression le){
-		String[] first = getDistinctVariables();
-		String[] second = le.getDistinctVariables();
+		BitSet other = variableSetOf(le);
 		ArrayList<String> inCommon = new ArrayList<>();
-		for(int i = 0;i < first.length;i++){
-			for(int j = 0;j < second.length;j++){
-				if(first[i].equals(second[j])){
-					inCommon.add(first[i]);
-				}
+		for(int i = 0;i < slots.length;i++){
+			if(other.get(slotSymbols[i])){
+				inCommon.add(slots[i]);
 			}
 		}
 		return inCommon;
 	}
 	
+	/**
+	 * @param has - variable names
+	 * @return whether this sentence has a variable that isn't in the list
+	 */
 	public boolean hasOtherVariables(ArrayList<String> has){
-		String[] variables = getDistinctVariables();
-		for(int i = 0;i < variables.length;i++){
-			if(!has.contains(variables[i])){
-				return true;
+		BitSet others = (BitSet)variableSet.clone();
+		for(int i = 0;i < has.size();i++){
+			int id = SymbolTable.lookup(has.get(i));
+			if(id >= 0){
+				others.clear(id);
 			}
 		}
-		return false;
+		return !others.isEmpty();
+	}
+	
+	/**
+	 * @param le - sentence to compare with
+	 * @return whether the sentences have at least one variable in common
+	 */
+	public boolean sharesVariables(LogicalExpression le){
+		return variableSet.intersects(variableSetOf(le));
+	}
+	
+	/**
+	 * @param le - sentence to compare with
+	 * @return whether every variable of this sentence is also a variable of le
+	 */
+	public boolean isSubsetOfVariables(LogicalExpression le){
+		BitSet difference = (BitSet)variableSet.clone();
+		difference.andNot(variableSetOf(le));
+		return difference.isEmpty();
+	}
+	
+	/**
+	 * @return variable set of le without copying it when le is a LogicalSentence
+	 */
+	private static BitSet variableSetOf(LogicalExpression le){
+		return le instanceof LogicalSentence ? ((LogicalSentence)le).variableSet : le.getVariableSet();
 	}
 	
 	/**
@@ -378,64 +731,277 @@ public class LogicalSentence implements LogicalExpression {
 	}
 	/**
 	 * puts sentence in Reverse Polish Notation for easy evaluation
+	 * @param tokens - token codes from the Lexer
+	 * @return the sentence in RPN, variables as symbol ids and operators as opcodes
+	 * @throws IllegalArgumentException if the parentheses don't match
 	 */
-	private void shuntingYard() {
-		cleanUp();
-		ArrayList<String> output = new ArrayList<>();//final output (sentence in reverse polish notation form)
-		Stack<String> operatorStack = new Stack<>();//temporary stack for operators
-		for (int i = 0; i < sentence.length; i++) {
-			if (isVariable(sentence[i])) {
-				output.add(sentence[i]);//if token is a variable,add it to the output
-			} else if (sentence[i].equals("(")) {
-				operatorStack.push(sentence[i]);//push left parenthesis to operator stack
-			} else if (sentence[i].equals(")")) {
-				while (!operatorStack.peek().equals("(")) {
-					output.add(operatorStack.pop());//if token is ")" , pop tokens onto the output until we find left parenthesis
-					if (operatorStack.isEmpty()) {
-						System.out.println("Mismatched parenthesis");//if we don't find left parenthesis, mismatched
-						System.exit(0);
-					}
+	private static int[] shuntingYard(int[] tokens) {
+		int[] output = new int[tokens.length];//final output (sentence in reverse polish notation form)
+		int size = 0;
+		int[] operatorStack = new int[tokens.length];//temporary stack for operators
+		int top = -1;
+		for (int i = 0; i < tokens.length; i++) {
+			int token = tokens[i];
+			if (isOperand(token)) {
+				output[size++] = token;//if token is a variable or constant,add it to the output
+			} else if (token == Lexer.LEFT_PAREN) {
+				operatorStack[++top] = token;//push left parenthesis to operator stack
+			} else if (token == Lexer.RIGHT_PAREN) {
+				while (top >= 0 && operatorStack[top] != Lexer.LEFT_PAREN) {
+					output[size++] = operatorStack[top--];//if token is ")" , pop tokens onto the output until we find left parenthesis
 				}
-				operatorStack.pop();//pop the left parenthesis away too
+				if (top < 0) {
+					throw new IllegalArgumentException("Mismatched parenthesis");//if we don't find left parenthesis, mismatched
+				}
+				top--;//pop the left parenthesis away too
 			} else {//for operators
-				if (!operatorStack.isEmpty()) {
-					while (!operatorStack.isEmpty()
-							&& ((ASSOCIATIVITIES[getPrecedence(sentence[i])].equals("r") && getPrecedence(sentence[i]) > getPrecedence(operatorStack.peek())
-									)||(ASSOCIATIVITIES[getPrecedence(sentence[i])].equals("l") && getPrecedence(sentence[i]) >= getPrecedence(operatorStack.peek())))
-							&& !operatorStack.peek().equals("(")) {
-							output.add(operatorStack.pop());
-							//while there is an operator token, o2, at the top of the operator stack, and either
-							//o1 is left-associative and its precedence is less than or equal to that of o2, or
-							//o1 is right associative, and has precedence less than that of o2,
-							//then pop o2 off the operator stack, onto the output queue;
-					}
-					operatorStack.push(sentence[i]);//once we're done popping, push the operator onto the stack
-				} else {
-					operatorStack.push(sentence[i]);//if the stack is empty, push 
+				int precedence = getPrecedence(token);
+				while (top >= 0 && operatorStack[top] != Lexer.LEFT_PAREN
+						&& (RIGHT_ASSOCIATIVE[precedence] ? precedence > getPrecedence(operatorStack[top])
+								: precedence >= getPrecedence(operatorStack[top]))) {
+					output[size++] = operatorStack[top--];
+					//while there is an operator token, o2, at the top of the operator stack, and either
+					//o1 is left-associative and its precedence is less than or equal to that of o2, or
+					//o1 is right associative, and has precedence less than that of o2,
+					//then pop o2 off the operator stack, onto the output queue;
 				}
-
+				operatorStack[++top] = token;//once we're done popping, push the operator onto the stack
+			}
+		}
+		while (top >= 0) {
+			if (operatorStack[top] == Lexer.LEFT_PAREN) {
+				throw new IllegalArgumentException("Mismatched parenthesis");
 			}
+			output[size++] = operatorStack[top--];//add elements remaining in operator stack to output
 		}
-		while (!operatorStack.isEmpty()) {
-			if (operatorStack.peek().equals("(") || operatorStack.peek().equals(")")) {
-				System.out.println("Mismatched parenthesis");
-				System.exit(0);
+		return Arrays.copyOf(output, size);
+	}
+	
+	/**
+	 * builds the RPN sentence into the shared expression DAG and compiles the DAG into registers,
+	 * one per distinct subformula in the order they are built, so a subformula repeated in the sentence
+	 * is evaluated once. Variables get their slot (the position of the variable in getDistinctVariables())
+	 * @param rpn - sentence in RPN, variables as symbol ids
+	 */
+	private void compile(int[] rpn) {
+		int capacity = Integer.highestOneBit(Math.max(rpn.length, 1)) * 4;//open addressing table from symbol id to slot
+		int[] keys = new int[capacity];
+		int[] values = new int[capacity];
+		Arrays.fill(keys, -1);
+		int[] symbols = new int[rpn.length];
+		int numOfSlots = 0;
+		long[] nodeIds = new long[capacity];//open addressing table from node id to register, nodes are hash-consed so the id is the structure
+		int[] registers = new int[capacity];
+		Arrays.fill(nodeIds, -1);
+		Expr[] stack = new Expr[rpn.length];
+		int top = -1;
+		code = new int[3 * rpn.length];
+		numOfRegisters = 0;
+		wellFormed = true;
+		for (int i = 0; i < rpn.length; i++) {
+			int token = rpn[i];
+			Expr node;
+			int op;
+			if (token >= 0) {
+				int h = (token * 0x9E3779B9) & (capacity - 1);
+				while (keys[h] != -1 && keys[h] != token) {
+					h = (h + 1) & (capacity - 1);
+				}
+				if (keys[h] == -1) {
+					keys[h] = token;//first time we see the variable, give it the next slot
+					values[h] = numOfSlots;
+					symbols[numOfSlots++] = token;
+				}
+				node = Expr.variable(token);
+				op = values[h];
+			} else if (token == OP_TRUE || token == OP_FALSE) {
+				node = Expr.constant(token == OP_TRUE);
+				op = token;
+			} else if (top < (token == OP_NOT ? 0 : 1)) {
+				wellFormed = false;//operator without enough operands, keep going to find the variables
+				continue;
+			} else if (token == OP_NOT) {
+				node = Expr.not(stack[top--]);
+				op = token;
 			} else {
-				output.add(operatorStack.pop());//add elements remaining in operator stack to output
+				Expr second = stack[top--];
+				node = Expr.operator(token, stack[top--], second);
+				op = token;
+			}
+			stack[++top] = node;
+			int h = findNode(nodeIds, node);
+			if (nodeIds[h] == -1) {//new subformula, give it the next register
+				int j = 3 * numOfRegisters;
+				code[j] = op;
+				if (node.getLeft() != null) {
+					code[j + 1] = registers[findNode(nodeIds, node.getLeft())];
+				}
+				if (node.getRight() != null) {
+					code[j + 2] = registers[findNode(nodeIds, node.getRight())];
+				}
+				nodeIds[h] = node.getId();
+				registers[h] = numOfRegisters++;
 			}
 		}
-		sentence = new String[output.size()];
-		for (int i = 0; i < output.size(); i++) {
-			sentence[i] = output.get(i);//transfer new sentence into logicalsentence object
+		if (top != 0) {
+			wellFormed = false;
+		}
+		root = wellFormed ? stack[0] : null;
+		rootRegister = wellFormed ? registers[findNode(nodeIds, root)] : -1;
+		slots = new String[numOfSlots];
+		slotSymbols = Arrays.copyOf(symbols, numOfSlots);
+		variableSet = new BitSet();
+		for (int i = 0; i < numOfSlots; i++) {
+			slots[i] = SymbolTable.nameOf(symbols[i]);
+			variableSet.set(symbols[i]);
 		}
 	}
 	
+	/**
+	 * rewrites the sentence into a simpler equivalent one in negation normal form (see Simplifier),
+	 * variables that simplify away are no longer part of the sentence, so the truth table and the
+	 * numbering of its rows only cover the variables that are left
+	 * @return how much the sentence shrank
+	 */
+	@Override
+	public Simplifier.Report simplify() {
+		if (!wellFormed) {
+			System.out.println("User input invalid");
+			return new Simplifier.Report(sentence.length, sentence.length, numOfRegisters, numOfRegisters, new String[0]);
+		}
+		Metrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0;
+		int sizeBefore = sentence.length;
+		int subformulasBefore = numOfRegisters;
+		BitSet variablesBefore = getVariableSet();
+		int[] rpn = toRpn(Simplifier.simplify(root));
+		sentence = toStrings(rpn);
+		compile(rpn);
+		variablesBefore.andNot(variableSet);
+		String[] eliminated = new String[variablesBefore.cardinality()];
+		for (int i = variablesBefore.nextSetBit(0), k = 0; i >= 0; i = variablesBefore.nextSetBit(i + 1), k++) {
+			eliminated[k] = SymbolTable.nameOf(i);
+		}
+		if (m != null) {
+			m.phaseTimed(Metrics.Phase.SIMPLIFY, this, System.nanoTime() - start);
+		}
+		return new Simplifier.Report(sizeBefore, sentence.length, subformulasBefore, numOfRegisters, eliminated);
+	}
+	
+	/**
+	 * @param e - expression to write out
+	 * @return the expression in RPN as symbol ids and opcodes, operands before their operator
+	 */
+	private static int[] toRpn(Expr e) {
+		int[] rpn = new int[16];
+		int size = 0;
+		ArrayDeque<Expr> todo = new ArrayDeque<>();
+		ArrayDeque<Boolean> expanded = new ArrayDeque<>();//whether the operands have already been pushed
+		todo.push(e);
+		expanded.push(false);
+		while (!todo.isEmpty()) {
+			Expr next = todo.pop();
+			boolean done = expanded.pop();
+			if (next.getLeft() != null && !done) {
+				todo.push(next);
+				expanded.push(true);
+				if (next.getRight() != null) {
+					todo.push(next.getRight());
+					expanded.push(false);
+				}
+				todo.push(next.getLeft());
+				expanded.push(false);
+				continue;
+			}
+			if (size == rpn.length) {
+				rpn = Arrays.copyOf(rpn, 2 * size);
+			}
+			rpn[size++] = next.getOp() == Expr.VARIABLE ? next.getSymbol() : next.getOp();
+		}
+		return Arrays.copyOf(rpn, size);
+	}
+	
+	/**
+	 * @param nodeIds - open addressing table of node ids, -1 for empty positions
+	 * @param node - node to look for
+	 * @return position of the node in the table, or the empty position it would go in
+	 */
+	private static int findNode(long[] nodeIds, Expr node) {
+		int h = (int)((node.getId() * 0x9E3779B97F4A7C15L) >>> 32) & (nodeIds.length - 1);
+		while (nodeIds[h] != -1 && nodeIds[h] != node.getId()) {
+			h = (h + 1) & (nodeIds.length - 1);
+		}
+		return h;
+	}
+	
+	/**
+	 * @return the sentence as a node of the shared expression DAG, null if the sentence isn't well formed
+	 */
+	public Expr getExpression() {
+		return root;
+	}
+	
+	/**
+	 * @return the compiled registers, 3 ints each: an OP_ code (or the slot of a variable)
+	 * and the registers of the operands
+	 */
+	int[] getCode() {
+		return code;
+	}
+	
+	/**
+	 * @return number of registers in the compiled code, one per distinct subformula
+	 */
+	int getNumOfRegisters() {
+		return numOfRegisters;
+	}
+	
+	/**
+	 * @return register holding the value of the whole sentence
+	 */
+	int getRootRegister() {
+		return rootRegister;
+	}
+	
+	/**
+	 * @param rpn - sentence in RPN as symbol ids and opcodes
+	 * @return the same sentence as strings
+	 */
+	private static String[] toStrings(int[] rpn) {
+		String[] strings = new String[rpn.length];
+		for (int i = 0; i < rpn.length; i++) {
+			if (rpn[i] >= 0) {
+				strings[i] = SymbolTable.nameOf(rpn[i]);
+			} else if (rpn[i] == OP_TRUE || rpn[i] == OP_FALSE) {
+				strings[i] = rpn[i] == OP_TRUE ? "1" : "0";
+			} else {
+				strings[i] = OPERATORS[getPrecedence(rpn[i])];
+			}
+		}
+		return strings;
+	}
+	
+	/**
+	 * @param rpn - sentence in RPN as strings
+	 * @return the same sentence as symbol ids and opcodes
+	 */
+	private static int[] toTokens(String[] rpn) {
+		int[] tokens = new int[rpn.length];
+		for (int i = 0; i < rpn.length; i++) {
+			tokens[i] = isVariable(rpn[i]) || rpn[i].equals("1") || rpn[i].equals("0") ? Lexer.identifierCode(rpn[i]) : OPERATOR_CODES[getPrecedence(rpn[i])];
+		}
+		return tokens;
+	}
+	
 	/**
 	 * 
 	 * @param token - token to check if variable or not
 	 * @return if token is a variable or not
 	 */
 	private static boolean isVariable(String token) {
+		if (token.equals("1") || token.equals("0")) {
+			return false;//constants aren't variables
+		}
 		for (int i = 0; i < OPERATORS.length; i++) {
 			if (token.equals(OPERATORS[i]) || token.equals("(") || token.equals(")")) {//if token is an operator or parenthesis, its not a variable
 				return false;//compare token to operator array and also make sure its not a parenthesis
@@ -444,6 +1010,27 @@ public class LogicalSentence implements LogicalExpression {
 		return true;//otherwise, it is a variable
 	}
 	
+	/**
+	 * @param token - token code from the Lexer
+	 * @return whether the token is a variable or a constant
+	 */
+	private static boolean isOperand(int token) {
+		return token >= 0 || token == Lexer.TRUE || token == Lexer.FALSE;
+	}
+	
+	/**
+	 * @param operator - opcode of an operator
+	 * @return precedence of the operator (its position in OPERATORS)
+	 */
+	private static int getPrecedence(int operator) {
+		for (int i = 0; i < OPERATOR_CODES.length; i++) {
+			if (operator == OPERATOR_CODES[i]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
 	/**
 	 * 
 	 * @param operator - operator to get precedence of
@@ -514,109 +1101,307 @@ public class LogicalSentence implements LogicalExpression {
 	 * @return number of distinct variables in a sentence
 	 */
 	public int getNumOfDistinctVariablesInSentence(){
-		int numOfVariables = 0;
-		ArrayList<String> values = new ArrayList<>();
-		for(int i = 0;i < sentence.length;i++){
-			if(isVariable(sentence[i])){
-				if(!values.contains(sentence[i])){
-					numOfVariables++;//count variable if the variable isn't already existing
-				}
-				values.add(sentence[i]);
+		return slots.length;
+	}
+	
+	/**
+	 * @return result of evaluation of the sentence
+	 * @param values - values to evaluate on the sentence
+	 */
+	@Override
+	public boolean evaluate(HashMap<String,Integer> values){
+		boolean[] assignment = new boolean[slots.length];
+		for(int i = 0;i < slots.length;i++){
+			assignment[i] = values.get(slots[i]) == 1;//convert 0,1 to false,true for each slot
+		}
+		return evaluate(assignment);
+	}
+	
+	/**
+	 * @return result of evaluation of the sentence
+	 * @param assignmentBits - truth assignment packed into a long, the variable in slot k is bit (n - 1 - k)
+	 * where n is the number of distinct variables, so row i of allPossibleOutcomes() is evaluate(i)
+	 */
+	@Override
+	public boolean evaluate(long assignmentBits){
+		return run(assignmentBits, null);
+	}
+	
+	/**
+	 * @return result of evaluation of the sentence
+	 * @param assignment - value of each variable, indexed by slot (same order as getDistinctVariables())
+	 */
+	@Override
+	public boolean evaluate(boolean[] assignment){
+		return run(0, assignment);
+	}
+	
+	/**
+	 * evaluates the sentence on many assignments at once, 64 rows per pass over the registers
+	 * @param columns - values of each slot, row r of a column is bit (r % 64) of word (r / 64)
+	 * @param rows - number of assignments
+	 * @return result of each row, packed the same way as the columns, bits past the last row are 0
+	 */
+	@Override
+	public long[] evaluateBatch(long[][] columns, int rows){
+		long[] results = new long[(rows + 63) >>> 6];
+		if(columns.length != slots.length){
+			throw new IllegalArgumentException("expected " + slots.length + " columns, got " + columns.length);
+		}
+		for(int i = 0;i < columns.length;i++){
+			if(columns[i].length < results.length){
+				throw new IllegalArgumentException("column of " + slots[i] + " has fewer than " + rows + " rows");
 			}
 		}
-		return numOfVariables;
+		if(!wellFormed){
+			System.out.println("User input invalid");
+			return results;
+		}
+		Metrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0;
+		long[] registers = new long[numOfRegisters];
+		for(int w = 0;w < results.length;w++){
+			results[w] = evaluateColumns(columns, w, registers);
+		}
+		if((rows & 63) != 0){
+			results[results.length - 1] &= (1L << rows) - 1;//clear the rows past the end
+		}
+		if(m != null){
+			m.evaluationsRun(rows);
+			m.phaseTimed(Metrics.Phase.BATCH, this, System.nanoTime() - start);
+		}
+		return results;
 	}
 	
 	/**
-	 * 
-	 * @return a HashMap array with all possible truth assignments for a sentence
-	 * this is done by printing binary representation of the number of variables inside
-	 * the sentence, and filling any empty spaces with 0's
-	 */
-	private HashMap<String,Integer>[] allTruthAssignments(){
-		int numOfVariables = getNumOfDistinctVariablesInSentence();//get number of variables
-		HashMap<String,Integer>[] allTruthAssignments = new HashMap[(int)Math.pow(2, numOfVariables)];//hashmap to hold all possible values
-		String[] distinctVariables = getDistinctVariables();
-		for(int i = 0;i < allTruthAssignments.length;i++){//numbers to have binary representations of
-			String binary = Integer.toBinaryString(i);//get the binary representation of the number
-			String[] temp = binary.split("");//split the number into an array (0 is false, 1 is true)
-			int numOfPlaceholders = 0;
-			if(temp.length < numOfVariables){
-				numOfPlaceholders = numOfVariables - temp.length;//count the number of place holders needed 
-																//e.g binary # may be 10, but we need 0010 so two placeholders
-			}
-			int [] values = new int[numOfVariables];
-			for(int j = 0;j < numOfPlaceholders;j++){
-				values[j] = 0;//put 0 in for placeholders
-			}
-			for(int j = numOfPlaceholders;j < numOfVariables;j++){
-				values[j] = Integer.parseInt(temp[j - numOfPlaceholders]);//add the digits from the binary # in
-			}
-			allTruthAssignments[i] = new HashMap<String,Integer>();
-			for(int j = 0;j < distinctVariables.length;j++){
-				allTruthAssignments[i].put(distinctVariables[j], values[j]);//assign truefalse to variables
+	 * evaluates the sentence on many assignments at once
+	 * @param columns - values of each distinct variable by name, bit r is the value in row r
+	 * @param rows - number of assignments
+	 * @return rows where the sentence is true
+	 */
+	@Override
+	public BitSet evaluateBatch(Map<String,BitSet> columns, int rows){
+		long[][] packed = new long[slots.length][];
+		for(int i = 0;i < slots.length;i++){
+			BitSet column = columns.get(slots[i]);
+			if(column == null){
+				throw new IllegalArgumentException("no column for " + slots[i]);
 			}
-
+			packed[i] = Arrays.copyOf(column.toLongArray(), (rows + 63) >>> 6);//toLongArray() drops trailing zero words
 		}
-		return allTruthAssignments;
+		return BitSet.valueOf(evaluateBatch(packed, rows));
 	}
 	
 	/**
+	 * runs the compiled registers, keeping the registers in the bits of a long so nothing is allocated
+	 * unless the sentence has more than 64 distinct subformulas
+	 * @param assignmentBits - packed assignment, used when assignment is null
+	 * @param assignment - assignment indexed by slot
 	 * @return result of evaluation of the sentence
-	 * @param values - values to evaluate on the sentence
 	 */
-	@Override
-	public boolean evaluate(HashMap<String,Integer> values){
-		boolean[] bool = {false,true};//to convert 0,1 to false,true
-		String[] temp = Arrays.copyOf(sentence, sentence.length);//operate on copy of sentence so we don't mess up the sentence
-		Stack<Integer> answerStack = new Stack<>();//answer stack that will help with evaluation
-		for(int j = 0;j < temp.length;j++){
-			if(isVariable(temp[j])){
-				temp[j] = Integer.toString(values.get(temp[j]));//replace variables with true/false assignments
+	private boolean run(long assignmentBits, boolean[] assignment){
+		if(!wellFormed){
+			System.out.println("User input invalid");
+			return false;
+		}
+		Metrics m = metrics;
+		if(m != null){
+			m.evaluationsRun(1);
+		}
+		if(numOfRegisters > 64){
+			return runLarge(assignmentBits, assignment);
+		}
+		long registers = 0;
+		for(int r = 0, j = 0;r < numOfRegisters;r++, j += 3){
+			int op = code[j];
+			long value;
+			if(op >= 0){//variable
+				value = assignment == null ? (assignmentBits >>> (slots.length - 1 - op)) & 1 : (assignment[op] ? 1 : 0);
+			}else if(op == OP_NOT){
+				value = ~(registers >>> code[j + 1]) & 1;
+			}else if(op == OP_AND){
+				value = (registers >>> code[j + 1]) & (registers >>> code[j + 2]) & 1;
+			}else if(op == OP_OR){
+				value = ((registers >>> code[j + 1]) | (registers >>> code[j + 2])) & 1;
+			}else if(op == OP_XOR){
+				value = ((registers >>> code[j + 1]) ^ (registers >>> code[j + 2])) & 1;
+			}else if(op == OP_IMPLIES){
+				value = (~(registers >>> code[j + 1]) | (registers >>> code[j + 2])) & 1;
+			}else if(op == OP_IFF){
+				value = ~((registers >>> code[j + 1]) ^ (registers >>> code[j + 2])) & 1;
+			}else{
+				value = op == OP_TRUE ? 1 : 0;
 			}
+			registers |= value << r;
+		}
+		return ((registers >>> rootRegister) & 1) != 0;
+	}
+	
+	/**
+	 * same as run(), but with the registers in a per-thread array
+	 */
+	private boolean runLarge(long assignmentBits, boolean[] assignment){
+		boolean[] registers = registerScratch.get();
+		if(registers.length < numOfRegisters){
+			registers = new boolean[numOfRegisters];
+			registerScratch.set(registers);
 		}
-		for(int j = 0;j < temp.length;j++){
-			if(isVariable(temp[j])){
-				answerStack.push(Integer.parseInt(temp[j]));//if token is variable (true/false) then push it onto the stack
+		for(int r = 0, j = 0;r < numOfRegisters;r++, j += 3){
+			int op = code[j];
+			if(op >= 0){
+				registers[r] = assignment == null ? ((assignmentBits >>> (slots.length - 1 - op)) & 1) != 0 : assignment[op];
+			}else if(op == OP_NOT){
+				registers[r] = !registers[code[j + 1]];
+			}else if(op == OP_AND){
+				registers[r] = registers[code[j + 1]] && registers[code[j + 2]];
+			}else if(op == OP_OR){
+				registers[r] = registers[code[j + 1]] || registers[code[j + 2]];
+			}else if(op == OP_XOR){
+				registers[r] = registers[code[j + 1]] != registers[code[j + 2]];
+			}else if(op == OP_IMPLIES){
+				registers[r] = !registers[code[j + 1]] || registers[code[j + 2]];
+			}else if(op == OP_IFF){
+				registers[r] = registers[code[j + 1]] == registers[code[j + 2]];
 			}else{
-				switch (temp[j]){
-				case "~"://if ~ operator, pop a value from the answer stack, switch its value, and push it back onto the stack
-					if(answerStack.peek() == 0){
-						answerStack.pop();
-						answerStack.push(1);
-					}else{
-						answerStack.pop();
-						answerStack.push(0);
-					}
-					break;
-				case "&"://if & operator, pop two values, evaluate the two values with &, and push result back onto the stack
-					boolean first = bool[answerStack.pop()];
-					boolean second = bool[answerStack.pop()];
-					boolean answer = first && second;
-					for(int k = 0;k < bool.length;k++){
-						if(answer == bool[k]){
-							answerStack.push(k);
-						}
-					}
-					break;
-				case "|"://if | operator, pop two values, evaluate the two values with |, and push the result back onto the stack
-					boolean firstBool = bool[answerStack.pop()];
-					boolean secondBool = bool[answerStack.pop()];
-					boolean answerBool = firstBool || secondBool;
-					for(int k = 0;k < bool.length;k++){
-						if(answerBool == bool[k]){
-							answerStack.push(k);
-						}
-					}
-				}
+				registers[r] = op == OP_TRUE;
 			}
 		}
-		if(answerStack.size() == 1){
-			return bool[answerStack.pop()];//size should be 1, and this 1 value is the answer to evaluating the sentence
-		}else{
+		return registers[rootRegister];
+	}
+	
+	/**
+	 * @return evaluator that short circuits & and | on an operator tree of the sentence, as it is now
+	 */
+	@Override
+	public ShortCircuitEvaluator shortCircuitEvaluator(){
+		if(!wellFormed){
 			System.out.println("User input invalid");
-			return false;
+			return ShortCircuitEvaluator.constant(slots.clone(), false);//every assignment evaluates to false
+		}
+		return ShortCircuitEvaluator.build(this);
+	}
+	
+	/**
+	 * @return true, false, or undetermined if the assigned variables don't decide the sentence
+	 * @param values - values of the assigned variables, variables missing from the map (or mapped to null) are unassigned
+	 */
+	@Override
+	public ThreeValuedVariable evaluatePartial(HashMap<String,Integer> values){
+		byte[] slotValues = new byte[slots.length];
+		for(int i = 0;i < slots.length;i++){
+			Integer value = values.get(slots[i]);
+			slotValues[i] = (byte)(value == null ? ThreeValuedVariable.UNDETERMINED : value == 1 ? ThreeValuedVariable.TRUE : ThreeValuedVariable.FALSE);
+		}
+		return runPartial(0, 0, slotValues);
+	}
+	
+	/**
+	 * @return true, false, or undetermined if the assigned variables don't decide the sentence
+	 * @param assignmentBits - packed values, the variable in slot k is bit (n - 1 - k)
+	 * @param assignedBits - bits of the variables that are assigned
+	 */
+	@Override
+	public ThreeValuedVariable evaluatePartial(long assignmentBits, long assignedBits){
+		return runPartial(assignmentBits, assignedBits, null);
+	}
+	
+	/**
+	 * runs the registers with strong Kleene semantics, each register is true, false or unknown
+	 * @param slotValues - value code of each slot (see ThreeValuedVariable), null to read the packed bits instead
+	 */
+	private ThreeValuedVariable runPartial(long assignmentBits, long assignedBits, byte[] slotValues){
+		if(!wellFormed){
+			System.out.println("User input invalid");
+			return new ThreeValuedVariable(ThreeValuedVariable.UNDETERMINED);
+		}
+		Metrics m = metrics;
+		if(m != null){
+			m.evaluationsRun(1);
+		}
+		if(numOfRegisters > 64){
+			return new ThreeValuedVariable(runPartialLarge(assignmentBits, assignedBits, slotValues));
+		}
+		long isTrue = 0;//bit r is set when register r is known to be true
+		long isFalse = 0;//bit r is set when register r is known to be false, neither bit means unknown
+		for(int r = 0, j = 0;r < numOfRegisters;r++, j += 3){
+			int op = code[j];
+			long t, f;
+			if(op >= 0){//variable
+				int value = slotValue(op, assignmentBits, assignedBits, slotValues);
+				t = value == ThreeValuedVariable.TRUE ? 1 : 0;
+				f = value == ThreeValuedVariable.FALSE ? 1 : 0;
+			}else if(op == OP_NOT){
+				t = isFalse >>> code[j + 1];
+				f = isTrue >>> code[j + 1];
+			}else if(op == OP_AND){//true if both are, false if either is
+				t = (isTrue >>> code[j + 1]) & (isTrue >>> code[j + 2]);
+				f = (isFalse >>> code[j + 1]) | (isFalse >>> code[j + 2]);
+			}else if(op == OP_OR){
+				t = (isTrue >>> code[j + 1]) | (isTrue >>> code[j + 2]);
+				f = (isFalse >>> code[j + 1]) & (isFalse >>> code[j + 2]);
+			}else if(op == OP_XOR){//only known when both sides are
+				long ta = isTrue >>> code[j + 1], fa = isFalse >>> code[j + 1];
+				long tb = isTrue >>> code[j + 2], fb = isFalse >>> code[j + 2];
+				t = (ta & fb) | (fa & tb);
+				f = (ta & tb) | (fa & fb);
+			}else if(op == OP_IMPLIES){
+				t = (isFalse >>> code[j + 1]) | (isTrue >>> code[j + 2]);
+				f = (isTrue >>> code[j + 1]) & (isFalse >>> code[j + 2]);
+			}else if(op == OP_IFF){
+				long ta = isTrue >>> code[j + 1], fa = isFalse >>> code[j + 1];
+				long tb = isTrue >>> code[j + 2], fb = isFalse >>> code[j + 2];
+				t = (ta & tb) | (fa & fb);
+				f = (ta & fb) | (fa & tb);
+			}else{
+				t = op == OP_TRUE ? 1 : 0;
+				f = op == OP_TRUE ? 0 : 1;
+			}
+			isTrue |= (t & 1) << r;
+			isFalse |= (f & 1) << r;
+		}
+		return new ThreeValuedVariable((int)((isTrue >>> rootRegister) & 1) - (int)((isFalse >>> rootRegister) & 1));
+	}
+	
+	/**
+	 * same as runPartial(), with a value code per register: ~ negates, & is the minimum and | the maximum
+	 */
+	private int runPartialLarge(long assignmentBits, long assignedBits, byte[] slotValues){
+		byte[] registers = new byte[numOfRegisters];
+		for(int r = 0, j = 0;r < numOfRegisters;r++, j += 3){
+			int op = code[j];
+			if(op >= 0){
+				registers[r] = (byte)slotValue(op, assignmentBits, assignedBits, slotValues);
+			}else if(op == OP_NOT){
+				registers[r] = (byte)-registers[code[j + 1]];
+			}else if(op == OP_AND){
+				registers[r] = (byte)Math.min(registers[code[j + 1]], registers[code[j + 2]]);
+			}else if(op == OP_OR){
+				registers[r] = (byte)Math.max(registers[code[j + 1]], registers[code[j + 2]]);
+			}else if(op == OP_XOR){
+				registers[r] = (byte)-(registers[code[j + 1]] * registers[code[j + 2]]);//0 if either side is unknown
+			}else if(op == OP_IMPLIES){
+				registers[r] = (byte)Math.max(-registers[code[j + 1]], registers[code[j + 2]]);
+			}else if(op == OP_IFF){
+				registers[r] = (byte)(registers[code[j + 1]] * registers[code[j + 2]]);
+			}else{
+				registers[r] = (byte)(op == OP_TRUE ? ThreeValuedVariable.TRUE : ThreeValuedVariable.FALSE);
+			}
 		}
+		return registers[rootRegister];
+	}
+	
+	/**
+	 * @return value code (see ThreeValuedVariable) of the variable in a slot
+	 */
+	private int slotValue(int slot, long assignmentBits, long assignedBits, byte[] slotValues){
+		if(slotValues != null){
+			return slotValues[slot];
+		}
+		int shift = slots.length - 1 - slot;
+		if(((assignedBits >>> shift) & 1) == 0){
+			return ThreeValuedVariable.UNDETERMINED;
+		}
+		return ((assignmentBits >>> shift) & 1) != 0 ? ThreeValuedVariable.TRUE : ThreeValuedVariable.FALSE;
 	}
 	
 	/**
@@ -624,22 +1409,174 @@ public class LogicalSentence implements LogicalExpression {
 	 */
 	@Override
 	public boolean[] allPossibleOutcomes() {
-		int numOfVariables = getNumOfDistinctVariablesInSentence();//get number of variables
-		boolean[] outcomes = new boolean[(int)Math.pow(2, numOfVariables)];//boolean array to hold all possible outcomes
-		HashMap<String,Integer>[] allTruthAssignments = allTruthAssignments();//get all possible truth assignments
-		for(int i = 0;i < (int)Math.pow(2, numOfVariables);i++){
-			outcomes[i] = evaluate(allTruthAssignments[i]);//evaluate each of the possible truth assignments, and store the result
+		if(slots.length > 30){
+			throw new IllegalStateException("the outcomes of at most 30 variables fit in an array");
+		}
+		long[] table = truthTable();
+		boolean[] outcomes = new boolean[(int)Math.pow(2, slots.length)];//boolean array to hold all possible outcomes
+		for(int i = 0;i < outcomes.length;i++){
+			outcomes[i] = (table[i >>> 6] & (1L << i)) != 0;//unpack row i from the truth table
 		}
 		return outcomes;
 	}
+	
+	/**
+	 * @return all possible outcomes packed into longs, row i is bit (i % 64) of word (i / 64)
+	 * rows are numbered the same way as in allPossibleOutcomes()
+	 */
+	@Override
+	public long[] truthTable() {
+		return truthTable(defaultPool());
+	}
+	
+	/**
+	 * @param pool - pool to split the truth table across, null to evaluate on the calling thread
+	 * @return all possible outcomes packed into longs, row i is bit (i % 64) of word (i / 64)
+	 */
+	@Override
+	public long[] truthTable(ForkJoinPool pool) {
+		if(slots.length > MAX_TABLE_VARIABLES){
+			throw new IllegalStateException("the truth table of at most " + MAX_TABLE_VARIABLES + " variables fits in an array");
+		}
+		if(!wellFormed){
+			System.out.println("User input invalid");
+			return new long[(int)getNumOfWords()];
+		}
+		Metrics m = metrics;
+		long start = m != null ? System.nanoTime() : 0;
+		long[] table;
+		if(pool != null){
+			table = ParallelTruthTable.truthTable(this, pool);
+		}else if(slots.length > 6){
+			table = GrayCodeIterator.truthTable(this);//words in Gray code order, one variable's registers per word
+		}else{
+			table = new long[(int)getNumOfWords()];
+			long[] registers = new long[numOfRegisters];
+			for(int i = 0;i < table.length;i++){
+				table[i] = evaluateWord(i, registers) & wordMask();
+			}
+		}
+		if(m != null){
+			m.assignmentsGenerated(1L << slots.length);
+			m.phaseTimed(Metrics.Phase.TRUTH_TABLE, this, System.nanoTime() - start);
+		}
+		return table;
+	}
+	
+	/**
+	 * evaluates 64 rows of the truth table at once, each variable becomes the pattern of its
+	 * values across the rows and the operators become bitwise operations
+	 * @param word - index of the word, evaluates rows 64 * word to 64 * word + 63
+	 * @param registers - scratch registers, at least getNumOfRegisters() long
+	 * @return the 64 outcomes, row 64 * word + j is bit j
+	 */
+	long evaluateWord(long word, long[] registers) {
+		for(int r = 0, j = 0;r < numOfRegisters;r++, j += 3){
+			int op = code[j];
+			if(op >= 0){
+				registers[r] = rowPattern(slots.length - 1 - op, word);
+			}else if(op == OP_NOT){
+				registers[r] = ~registers[code[j + 1]];
+			}else if(op == OP_AND){
+				registers[r] = registers[code[j + 1]] & registers[code[j + 2]];
+			}else if(op == OP_OR){
+				registers[r] = registers[code[j + 1]] | registers[code[j + 2]];
+			}else if(op == OP_XOR){
+				registers[r] = registers[code[j + 1]] ^ registers[code[j + 2]];
+			}else if(op == OP_IMPLIES){
+				registers[r] = ~registers[code[j + 1]] | registers[code[j + 2]];
+			}else if(op == OP_IFF){
+				registers[r] = ~(registers[code[j + 1]] ^ registers[code[j + 2]]);
+			}else{
+				registers[r] = op == OP_TRUE ? -1L : 0L;
+			}
+		}
+		return registers[rootRegister];
+	}
+	
+	/**
+	 * same as evaluateWord(), but the variables come from the columns of a batch instead of the row index
+	 * @param columns - values of each slot, packed 64 rows to a word
+	 * @param word - index of the word to evaluate
+	 * @param registers - scratch registers, at least getNumOfRegisters() long
+	 * @return the 64 outcomes, row 64 * word + j is bit j
+	 */
+	long evaluateColumns(long[][] columns, int word, long[] registers) {
+		for(int r = 0, j = 0;r < numOfRegisters;r++, j += 3){
+			int op = code[j];
+			if(op >= 0){
+				registers[r] = columns[op][word];
+			}else if(op == OP_NOT){
+				registers[r] = ~registers[code[j + 1]];
+			}else if(op == OP_AND){
+				registers[r] = registers[code[j + 1]] & registers[code[j + 2]];
+			}else if(op == OP_OR){
+				registers[r] = registers[code[j + 1]] | registers[code[j + 2]];
+			}else if(op == OP_XOR){
+				registers[r] = registers[code[j + 1]] ^ registers[code[j + 2]];
+			}else if(op == OP_IMPLIES){
+				registers[r] = ~registers[code[j + 1]] | registers[code[j + 2]];
+			}else if(op == OP_IFF){
+				registers[r] = ~(registers[code[j + 1]] ^ registers[code[j + 2]]);
+			}else{
+				registers[r] = op == OP_TRUE ? -1L : 0L;
+			}
+		}
+		return registers[rootRegister];
+	}
+	
+	/**
+	 * @param bit - bit of the row index
+	 * @param word - index of a word of the truth table
+	 * @return value of that bit of the row index across the 64 rows of the word
+	 */
+	static long rowPattern(int bit, long word) {
+		if(bit < 6){
+			return LOW_PATTERNS[bit];//changes inside the word
+		}
+		return ((word >>> (bit - 6)) & 1) != 0 ? -1L : 0L;//constant across the word
+	}
+	
+	/**
+	 * @return mask of the rows that exist in a word of the truth table (less than 64 rows only with under 6 variables)
+	 */
+	long wordMask() {
+		return slots.length >= 6 ? -1L : (1L << (1 << slots.length)) - 1;
+	}
+	
+	/**
+	 * @return number of words in the truth table, exact up to 68 variables
+	 */
+	long getNumOfWords() {
+		return slots.length <= 6 ? 1 : 1L << (slots.length - 6);//2^n rows, not 2^n + 63 which overflows at 63
+	}
+	
+	/**
+	 * @return the pool set with setParallelPool() if the truth table is big enough to split, otherwise null
+	 */
+	private ForkJoinPool defaultPool() {
+		return slots.length >= PARALLEL_MIN_VARIABLES ? parallelPool : null;
+	}
 
-	public static void main(String args[]) {
+	public static void main(String args[]) throws IOException {
+		if(args.length > 0){
+			BatchMode.main(args);//file of sentences, see BatchMode
+			return;
+		}
 		Scanner s = new Scanner(System.in);
-		System.out.println("Enter first logical sentence: ");
-		LogicalSentence ls = new LogicalSentence(s.nextLine());
-		System.out.println("Enter second logical sentence: ");
-		LogicalSentence ls2 = new LogicalSentence(s.nextLine());
-		s.close();
+		LogicalSentence ls;
+		LogicalSentence ls2;
+		try{
+			System.out.println("Enter first logical sentence: ");
+			ls = new LogicalSentence(s.nextLine());
+			System.out.println("Enter second logical sentence: ");
+			ls2 = new LogicalSentence(s.nextLine());
+		}catch(IllegalArgumentException e){
+			System.out.println(e.getMessage());
+			return;
+		}finally{
+			s.close();
+		}
 		
 		System.out.println("All possible outcomes of first sentence: ");
 		System.out.println(Arrays.toString(ls.allPossibleOutcomes()));
@@ -0,0 +1,52 @@
+/**
+ * receives counts and timings from LogicalSentence, installed with LogicalSentence.setMetrics()
+ * (JmxMetrics.install() installs the default one, which shows them over JMX)
+ * while no metrics are installed the evaluator only pays for a null check
+ * implementations are called from many threads at once
+ */
+public interface Metrics {
+
+	/**
+	 * timed parts of the evaluator
+	 */
+	enum Phase {
+		PARSE,//constructor and setSentence(): tokenizing, shunting yard and compiling
+		SIMPLIFY,
+		TRUTH_TABLE,//whole truth tables, allPossibleOutcomes() and truthTable()
+		SCAN,//truth table scans of valid(), satisfiable() and contingent()
+		SOLVE,//SAT solver calls of valid(), satisfiable(), contingent() and findModel()
+		ENTAILS,
+		EQUIVALENT,
+		COUNT,//countModels()
+		BDD,
+		BATCH,//evaluateBatch()
+		COVER//minimizedCover()
+	}
+
+	/**
+	 * @param tokens - number of tokens in the sentence
+	 */
+	void sentenceParsed(int tokens);
+
+	/**
+	 * @param count - number of truth table rows evaluated
+	 */
+	void assignmentsGenerated(long count);
+
+	/**
+	 * @param count - number of assignments evaluated one by one or in a batch
+	 */
+	void evaluationsRun(long count);
+
+	/**
+	 * @param count - number of satisfying assignments handed back to the caller
+	 */
+	void modelsReturned(long count);
+
+	/**
+	 * @param phase - what was timed
+	 * @param sentence - sentence it was timed on
+	 * @param nanos - wall time it took
+	 */
+	void phaseTimed(Phase phase, LogicalSentence sentence, long nanos);
+}
@@ -0,0 +1,484 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * exact model counter (#SAT) for clauses in DIMACS style literals
+ * DPLL with unit propagation that, after every decision, splits the clauses that are left into
+ * connected components (no shared variables) and multiplies their counts, and caches the count of
+ * each component so a component that comes back in another branch isn't counted again
+ * the search keeps its frames on a stack of its own, so it isn't limited by the thread's stack size, and a
+ * pending component is kept as one of its clauses rather than a copy of all of them. Each decision still
+ * costs time linear in the size of its component, so a long chain of decisions through one big component
+ * (like a wide | of &s) is quadratic in the size of the formula
+ */
+public class ModelCounter implements ClauseSink {
+	private static final int CACHE_LIMIT = 1 << 22;//clause and variable ids the cached keys hold before the cache is cleared
+	private static final int CACHE_MAX_CLAUSES = 1 << 12;//bigger components are too unlikely to come back to be worth a key
+
+	private int numVars;
+	private final ArrayList<int[]> clauses = new ArrayList<>();
+	private boolean empty;//an empty clause was added, so there are no models
+
+	private int[][] occurs;//clauses each variable is in
+	private byte[] values;//1 true, -1 false, 0 unassigned, by variable
+	private int[] trail;//assigned variables in order, to undo assignments
+	private int trailSize;
+	private int[] mark;//scratch, per variable and per clause
+	private int[] clauseMark;
+	private int stamp;
+	private int[] componentClauses;//component found by collect(), reused from one component to the next
+	private int[] componentVariables;
+	private int numComponentClauses;
+	private int numComponentVariables;
+	private Component collected;//component the buffers hold, until the next split
+	private int[] open;//scratch of split()
+	private int[] queue;
+	private final HashMap<Key,BigInteger> cache = new HashMap<>();
+	private int cachedIds;
+
+	@Override
+	public int newVariable() {
+		return ++numVars;
+	}
+
+	/**
+	 * @return number of variables the models are counted over
+	 */
+	public int getNumOfVariables() {
+		return numVars;
+	}
+
+	@Override
+	public boolean addClause(int... literals) {
+		int[] c = new int[literals.length];
+		int size = 0;
+		for (int lit : literals) {
+			boolean duplicate = false;
+			for (int i = 0; i < size; i++) {
+				if (c[i] == -lit) {
+					return true;//always satisfied, doesn't constrain anything
+				}
+				duplicate |= c[i] == lit;
+			}
+			if (!duplicate) {
+				c[size++] = lit;
+			}
+		}
+		if (size == 0) {
+			empty = true;
+		}
+		clauses.add(Arrays.copyOf(c, size));
+		return !empty;
+	}
+
+	/**
+	 * @return number of assignments to all the variables that satisfy every clause
+	 */
+	public BigInteger count() {
+		if (empty) {
+			return BigInteger.ZERO;
+		}
+		occurs = new int[numVars + 1][];
+		int[] occurrences = new int[numVars + 1];
+		for (int[] c : clauses) {
+			for (int lit : c) {
+				occurrences[Math.abs(lit)]++;
+			}
+		}
+		for (int v = 1; v <= numVars; v++) {
+			occurs[v] = new int[occurrences[v]];
+			occurrences[v] = 0;
+		}
+		for (int i = 0; i < clauses.size(); i++) {
+			for (int lit : clauses.get(i)) {
+				int v = Math.abs(lit);
+				occurs[v][occurrences[v]++] = i;
+			}
+		}
+		values = new byte[numVars + 1];
+		trail = new int[numVars];
+		trailSize = 0;
+		mark = new int[numVars + 1];
+		clauseMark = new int[clauses.size()];
+		stamp = 0;
+		componentClauses = new int[clauses.size()];
+		componentVariables = new int[numVars];
+		open = new int[clauses.size()];
+		queue = new int[clauses.size()];
+		cache.clear();
+		cachedIds = 0;
+		for (int[] c : clauses) {
+			if (c.length == 1 && !assign(c[0])) {
+				return BigInteger.ZERO;
+			}
+		}
+		if (!propagate(0)) {
+			return BigInteger.ZERO;
+		}
+		int[] allClauses = new int[clauses.size()];
+		for (int i = 0; i < allClauses.length; i++) {
+			allClauses[i] = i;
+		}
+		int[] allVariables = new int[numVars];
+		for (int v = 1; v <= numVars; v++) {
+			allVariables[v - 1] = v;
+		}
+		BigInteger result = run(split(allClauses, allClauses.length, allVariables, allVariables.length));
+		cache.clear();
+		return result;
+	}
+
+	/**
+	 * counts depth first with the frames on a stack of their own rather than the call stack, so the number of
+	 * decisions in a row isn't limited by the thread's stack size. A Product waits for the counts of the
+	 * components a split left, a Component for the counts of its two branches
+	 * @param root - split of the whole formula
+	 */
+	private BigInteger run(Product root) {
+		ArrayList<Object> frames = new ArrayList<>();
+		frames.add(root);
+		BigInteger value = null;//count handed up by the frame that just finished
+		while (true) {
+			Object top = frames.get(frames.size() - 1);
+			if (top instanceof Product) {
+				Product p = (Product) top;
+				if (value != null) {
+					if (value.signum() == 0) {
+						p.next = p.seeds.length;//one component without models is enough
+					}
+					p.multiply(value);
+					value = null;
+				}
+				if (p.next < p.seeds.length) {
+					Component c = startComponent(p.seeds[p.next++]);
+					if (c.total != null) {
+						value = c.total;//cached
+					} else {
+						c.total = BigInteger.ZERO;
+						frames.add(c);
+					}
+					continue;
+				}
+				value = p.product();
+			} else {
+				Component c = (Component) top;
+				if (value != null) {
+					c.total = c.total.add(value);
+					value = null;
+					undo(c.start);
+					c.branch++;
+				}
+				Product next = null;
+				while (c.branch < 2 && (next = branch(c)) == null) {
+					c.branch++;//conflict, the branch has no models
+				}
+				if (next != null) {
+					frames.add(next);
+					continue;
+				}
+				if (c.key != null) {
+					if (cachedIds >= CACHE_LIMIT) {
+						cache.clear();
+						cachedIds = 0;
+					}
+					cache.put(c.key, c.total);
+					cachedIds += c.key.clauses.length + c.key.variables.length;
+				}
+				value = c.total;
+			}
+			frames.remove(frames.size() - 1);
+			if (frames.isEmpty()) {
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * collects a component and picks its branching variable, the one in the most clauses, and of those the one
+	 * halfway through the order collect() found them in: far from the seed, so on a long chain of clauses the
+	 * decision cuts the chain in two rather than peeling one clause off its end
+	 * @return the component, with its count already in total if it is cached
+	 */
+	private Component startComponent(int seed) {
+		Component c = new Component(seed);
+		collect(seed);
+		collected = c;
+		if (numComponentClauses <= CACHE_MAX_CLAUSES) {
+			int[] keyClauses = Arrays.copyOf(componentClauses, numComponentClauses);
+			int[] keyVariables = Arrays.copyOf(componentVariables, numComponentVariables);
+			Arrays.sort(keyClauses);
+			Arrays.sort(keyVariables);
+			c.key = new Key(keyClauses, keyVariables);
+			c.total = cache.get(c.key);
+			if (c.total != null) {
+				return c;
+			}
+		}
+		int bestOccurrences = -1;
+		int bestDistance = 0;
+		int middle = numComponentVariables / 2;
+		for (int i = 0; i < numComponentVariables; i++) {
+			int v = componentVariables[i];
+			int distance = Math.abs(i - middle);
+			if (occurs[v].length > bestOccurrences || (occurs[v].length == bestOccurrences && distance < bestDistance)) {
+				c.best = v;
+				bestOccurrences = occurs[v].length;
+				bestDistance = distance;
+			}
+		}
+		return c;
+	}
+
+	/**
+	 * takes the component's current branch: assigns its variable and splits what is left
+	 * @return the split, or null (with the assignment undone) on a conflict
+	 */
+	private Product branch(Component c) {
+		if (collected != c) {
+			collect(c.seed);//the assignment is back to what it was when the component was found, so this is the same component
+			collected = c;
+		}
+		c.start = trailSize;
+		if (!assign(c.branch == 0 ? c.best : -c.best) || !propagate(c.start)) {
+			undo(c.start);
+			return null;
+		}
+		collected = null;//the components of the split are collected into the same buffers
+		return split(componentClauses, numComponentClauses, componentVariables, numComponentVariables);
+	}
+
+	/**
+	 * splits what's left of some clauses after an assignment into connected components
+	 * @param clauseIds - clauses before the assignment
+	 * @param variableIds - variables before the assignment
+	 * @return the components, as one clause of each, and the factor of the variables no open clause mentions
+	 */
+	private Product split(int[] clauseIds, int numClauses, int[] variableIds, int numVariables) {
+		int openStamp = ++stamp;
+		int numOpen = 0;
+		for (int k = 0; k < numClauses; k++) {
+			int c = clauseIds[k];
+			if (!isSatisfied(c)) {
+				open[numOpen++] = c;
+				clauseMark[c] = openStamp;
+			}
+		}
+		int usedStamp = ++stamp;
+		for (int k = 0; k < numOpen; k++) {
+			for (int lit : clauses.get(open[k])) {
+				if (values[Math.abs(lit)] == 0) {
+					mark[Math.abs(lit)] = usedStamp;
+				}
+			}
+		}
+		int free = 0;//unassigned variables no open clause mentions, each one doubles the count
+		for (int k = 0; k < numVariables; k++) {
+			int v = variableIds[k];
+			if (values[v] == 0 && mark[v] != usedStamp) {
+				free++;
+			}
+		}
+		int taken = ++stamp;
+		int[] seeds = new int[4];
+		int numSeeds = 0;
+		for (int k = 0; k < numOpen; k++) {
+			int first = open[k];
+			if (clauseMark[first] != openStamp) {
+				continue;//already in an earlier component
+			}
+			if (numSeeds == seeds.length) {
+				seeds = Arrays.copyOf(seeds, 2 * numSeeds);
+			}
+			seeds[numSeeds++] = first;
+			clauseMark[first] = taken;
+			queue[0] = first;
+			for (int q = 0, size = 1; q < size; q++) {
+				for (int lit : clauses.get(queue[q])) {
+					int v = Math.abs(lit);
+					if (values[v] != 0 || mark[v] == taken) {
+						continue;
+					}
+					mark[v] = taken;
+					for (int c : occurs[v]) {
+						if (clauseMark[c] == openStamp) {
+							clauseMark[c] = taken;
+							queue[size++] = c;
+						}
+					}
+				}
+			}
+		}
+		return new Product(Arrays.copyOf(seeds, numSeeds), BigInteger.ONE.shiftLeft(free));
+	}
+
+	/**
+	 * finds the component of a clause into componentClauses and componentVariables: the unsatisfied clauses
+	 * connected to it through unassigned variables. Components are closed, so those are exactly the open
+	 * clauses the split that found the clause put with it
+	 * @param first - unsatisfied clause to start from
+	 */
+	private void collect(int first) {
+		int seen = ++stamp;
+		int numClauses = 0;
+		int numVariables = 0;
+		clauseMark[first] = seen;
+		componentClauses[numClauses++] = first;
+		for (int k = 0; k < numClauses; k++) {
+			for (int lit : clauses.get(componentClauses[k])) {
+				int v = Math.abs(lit);
+				if (values[v] != 0 || mark[v] == seen) {
+					continue;
+				}
+				mark[v] = seen;
+				componentVariables[numVariables++] = v;
+				for (int c : occurs[v]) {
+					if (clauseMark[c] != seen) {
+						clauseMark[c] = seen;
+						if (!isSatisfied(c)) {
+							componentClauses[numClauses++] = c;
+						}
+					}
+				}
+			}
+		}
+		numComponentClauses = numClauses;
+		numComponentVariables = numVariables;
+	}
+
+	/**
+	 * unit propagation of the assignments made since start of the trail
+	 * @return false on a conflict
+	 */
+	private boolean propagate(int start) {
+		for (int t = start; t < trailSize; t++) {
+			for (int c : occurs[trail[t]]) {
+				int unassigned = 0;
+				int unit = 0;
+				boolean satisfied = false;
+				for (int lit : clauses.get(c)) {
+					int value = values[Math.abs(lit)];
+					if (value == 0) {
+						unassigned++;
+						unit = lit;
+					} else if ((value > 0) == (lit > 0)) {
+						satisfied = true;
+						break;
+					}
+				}
+				if (satisfied || unassigned > 1) {
+					continue;
+				}
+				if (unassigned == 0 || !assign(unit)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return false if the literal is already false
+	 */
+	private boolean assign(int lit) {
+		int v = Math.abs(lit);
+		byte value = (byte) (lit > 0 ? 1 : -1);
+		if (values[v] != 0) {
+			return values[v] == value;
+		}
+		values[v] = value;
+		trail[trailSize++] = v;
+		return true;
+	}
+
+	private void undo(int start) {
+		while (trailSize > start) {
+			values[trail[--trailSize]] = 0;
+		}
+	}
+
+	private boolean isSatisfied(int c) {
+		for (int lit : clauses.get(c)) {
+			int value = values[Math.abs(lit)];
+			if (value != 0 && (value > 0) == (lit > 0)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * a component being counted: the total of the branches done so far, null while it is only looked up
+	 */
+	private static final class Component {
+		final int seed;//a clause of the component, the rest is found from it again when needed
+		Key key;//null for components too big to cache
+		int best;//variable branched on
+		int branch;//0 while best is true, 1 while it is false, 2 when done
+		int start;//trail size before the branch's assignment
+		BigInteger total;
+
+		Component(int seed) {
+			this.seed = seed;
+		}
+	}
+
+	/**
+	 * components left by a split, the count is the product of theirs times the free variables' factor
+	 */
+	private static final class Product {
+		final int[] seeds;//a clause of each component
+		int next;//next component to count
+		private BigInteger product;
+		private long pending = 1;//product of the latest counts, while it fits in a long, so most components don't need a BigInteger multiply
+
+		Product(int[] seeds, BigInteger free) {
+			this.seeds = seeds;
+			this.product = free;
+		}
+
+		void multiply(BigInteger count) {
+			if (count.bitLength() < 31 && pending < 1L << 32) {
+				pending *= count.longValue();
+			} else {
+				product = product.multiply(BigInteger.valueOf(pending)).multiply(count);
+				pending = 1;
+			}
+		}
+
+		BigInteger product() {
+			return pending == 1 ? product : product.multiply(BigInteger.valueOf(pending));
+		}
+	}
+
+	/**
+	 * cache key of a component, its clauses and variables (the clauses' false literals are exactly
+	 * the ones whose variables aren't in the component, so together they fix what is counted)
+	 */
+	private static final class Key {
+		private final int[] clauses;
+		private final int[] variables;
+		private final int hash;
+
+		Key(int[] clauses, int[] variables) {
+			this.clauses = clauses;
+			this.variables = variables;
+			this.hash = Arrays.hashCode(clauses) * 31 + Arrays.hashCode(variables);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key k = (Key) o;
+			return hash == k.hash && Arrays.equals(clauses, k.clauses) && Arrays.equals(variables, k.variables);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
@@ -0,0 +1,123 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * fork/join evaluation of a truth table, the words of the table are split into ranges that are
+ * evaluated on different threads of the pool
+ */
+public class ParallelTruthTable {
+	private static final long WORDS_PER_TASK = 256;//16384 rows, ranges this small aren't split further
+
+	/**
+	 * @param sentence - well formed sentence to evaluate
+	 * @param pool - pool to run the tasks on
+	 * @return the packed truth table, the same as sentence.truthTable(null)
+	 */
+	public static long[] truthTable(LogicalSentence sentence, ForkJoinPool pool) {
+		long[] table = new long[(int) sentence.getNumOfWords()];
+		pool.invoke(new FillTask(sentence, table, 0, table.length));
+		return table;
+	}
+
+	/**
+	 * scans the truth table without storing it, every worker stops as soon as all the kinds of rows
+	 * asked for have been seen by any worker
+	 * @param sentence - well formed sentence to evaluate
+	 * @param wanted - LogicalSentence.SEEN_TRUE and/or LogicalSentence.SEEN_FALSE
+	 * @param pool - pool to run the tasks on
+	 * @return SEEN_TRUE if a satisfying row was seen, plus SEEN_FALSE if a falsifying row was seen
+	 */
+	public static int scan(LogicalSentence sentence, int wanted, ForkJoinPool pool) {
+		AtomicInteger seen = new AtomicInteger();
+		pool.invoke(new ScanTask(sentence, wanted, seen, 0, sentence.getNumOfWords()));
+		return seen.get();
+	}
+
+	/**
+	 * evaluates a range of words into the shared table, ranges of different tasks never overlap
+	 */
+	private static class FillTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final LogicalSentence sentence;
+		private final long[] table;
+		private final int from;
+		private final int to;
+
+		FillTask(LogicalSentence sentence, long[] table, int from, int to) {
+			this.sentence = sentence;
+			this.table = table;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > WORDS_PER_TASK) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new FillTask(sentence, table, from, middle), new FillTask(sentence, table, middle, to));
+				return;
+			}
+			long[] registers = new long[sentence.getNumOfRegisters()];
+			long mask = sentence.wordMask();
+			for (int i = from; i < to; i++) {
+				table[i] = sentence.evaluateWord(i, registers) & mask;
+			}
+		}
+	}
+
+	/**
+	 * looks for true/false rows in a range of words, sharing what was seen with the other tasks
+	 */
+	private static class ScanTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final LogicalSentence sentence;
+		private final int wanted;
+		private final AtomicInteger seen;
+		private final long from;
+		private final long to;
+
+		ScanTask(LogicalSentence sentence, int wanted, AtomicInteger seen, long from, long to) {
+			this.sentence = sentence;
+			this.wanted = wanted;
+			this.seen = seen;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if ((seen.get() & wanted) == wanted) {
+				return;//another worker already decided the answer
+			}
+			if (to - from > WORDS_PER_TASK) {
+				long middle = (from + to) >>> 1;
+				invokeAll(new ScanTask(sentence, wanted, seen, from, middle), new ScanTask(sentence, wanted, seen, middle, to));
+				return;
+			}
+			long[] registers = new long[sentence.getNumOfRegisters()];
+			long mask = sentence.wordMask();
+			int local = 0;
+			int published = 0;
+			for (long i = from; i < to; i++) {
+				long word = sentence.evaluateWord(i, registers) & mask;
+				if (word != 0) {
+					local |= LogicalSentence.SEEN_TRUE;
+				}
+				if (word != mask) {
+					local |= LogicalSentence.SEEN_FALSE;
+				}
+				int all;
+				if (local != published) {
+					published = local;
+					all = seen.accumulateAndGet(local, (x, y) -> x | y);//share the new kind of row
+				} else {
+					all = seen.get();
+				}
+				if ((all & wanted) == wanted) {
+					return;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,566 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Conflict-driven clause learning SAT solver, with two watched literals for unit propagation,
+ * VSIDS for picking decision variables, phase saving and Luby restarts
+ * variables are numbered from 1 and a literal is a variable (true) or its negation (false), like DIMACS
+ */
+public class SatSolver implements ClauseSink {
+	private static final int RESTART_BASE = 100;//conflicts in the first restart interval
+	private static final double VAR_DECAY = 0.95;//activity decay of VSIDS
+	private static final double CLAUSE_DECAY = 0.999;//activity decay of learnt clauses
+	private static final int UNKNOWN = 0;//results of search()
+	private static final int SAT = 1;
+	private static final int UNSAT = -1;
+
+	private int numVars;
+	private ArrayList<int[]> clauses = new ArrayList<>();//literals are stored internally as 2 * (variable - 1) + (negated ? 1 : 0)
+	private int[] learnts = new int[16];//indices of the learnt clauses that haven't been deleted
+	private int numLearnts;
+	private double[] clauseActivity = new double[16];//activity of each learnt clause, by clause index
+	private double clauseInc = 1;
+	private double maxLearnts;//learnt clauses allowed before the least active half is deleted
+	private int[][] watches = new int[0][];//clauses watching each literal
+	private int[] watchSize = new int[0];
+	private byte[] assigns = new byte[0];//1 true, -1 false, 0 unassigned
+	private int[] level = new int[0];//decision level each variable was assigned at
+	private int[] reason = new int[0];//clause that implied each variable, -1 for decisions
+	private boolean[] phase = new boolean[0];//last value of each variable, reused when branching
+	private boolean[] seen = new boolean[0];//scratch marks for conflict analysis
+	private double[] activity = new double[0];
+	private double varInc = 1;
+	private int[] trail = new int[0];//assigned literals in order
+	private int trailSize;
+	private int[] trailLim = new int[0];//start of each decision level on the trail
+	private int numLevels;
+	private int qhead;//next trail position to propagate
+	private int[] heap = new int[0];//variables ordered by activity, highest on top
+	private int[] heapIndex = new int[0];//position of each variable in the heap, -1 if absent
+	private int heapSize;
+	private boolean[] model = new boolean[0];
+	private int[] assumptions = new int[0];//internal literals decided first, one level each, by the current solve()
+	private boolean ok = true;//false once the clauses are known to be unsatisfiable
+
+	/**
+	 * @return a new variable
+	 */
+	@Override
+	public int newVariable() {
+		int v = numVars++;
+		if (numVars > assigns.length) {
+			int capacity = Math.max(16, numVars * 2);
+			watches = Arrays.copyOf(watches, capacity * 2);
+			watchSize = Arrays.copyOf(watchSize, capacity * 2);
+			assigns = Arrays.copyOf(assigns, capacity);
+			level = Arrays.copyOf(level, capacity);
+			reason = Arrays.copyOf(reason, capacity);
+			phase = Arrays.copyOf(phase, capacity);
+			seen = Arrays.copyOf(seen, capacity);
+			activity = Arrays.copyOf(activity, capacity);
+			trail = Arrays.copyOf(trail, capacity);
+			trailLim = Arrays.copyOf(trailLim, capacity);
+			heap = Arrays.copyOf(heap, capacity);
+			heapIndex = Arrays.copyOf(heapIndex, capacity);
+		}
+		watches[2 * v] = new int[4];
+		watches[2 * v + 1] = new int[4];
+		reason[v] = -1;
+		heapIndex[v] = -1;
+		heapInsert(v);
+		return v + 1;
+	}
+
+	/**
+	 * @return number of variables in the solver
+	 */
+	public int getNumOfVariables() {
+		return numVars;
+	}
+
+	/**
+	 * adds a clause, the disjunction of the literals
+	 * @param literals - literals of the clause
+	 * @return false if the solver now knows the clauses are unsatisfiable
+	 */
+	@Override
+	public boolean addClause(int... literals) {
+		if (!ok) {
+			return false;
+		}
+		cancelUntil(0);
+		int[] c = new int[literals.length];
+		for (int i = 0; i < literals.length; i++) {
+			c[i] = toInternal(literals[i]);
+		}
+		Arrays.sort(c);
+		int size = 0;
+		for (int i = 0; i < c.length; i++) {
+			if (valueOf(c[i]) == 1 || (i > 0 && c[i] == (c[i - 1] ^ 1))) {
+				return true;//already satisfied, or a tautology
+			}
+			if (valueOf(c[i]) == 0 && (size == 0 || c[size - 1] != c[i])) {
+				c[size++] = c[i];//keep the literal unless it is false or repeated
+			}
+		}
+		if (size == 0) {
+			ok = false;
+		} else if (size == 1) {
+			enqueue(c[0], -1);
+			ok = propagate() == -1;
+		} else {
+			attach(Arrays.copyOf(c, size));
+		}
+		return ok;
+	}
+
+	/**
+	 * @return whether the clauses added so far are satisfiable, if they are getModelValue() gives the model
+	 */
+	public boolean solve() {
+		return solve(new int[0]);
+	}
+
+	/**
+	 * solves with the literals assumed true, without adding them, so the solver can be asked again
+	 * under other assumptions and keeps its learnt clauses and activities from this call
+	 * @param assumptions - literals that must be true in the model
+	 * @return whether the clauses added so far are satisfiable together with the assumptions,
+	 * if they are getModelValue() gives the model
+	 */
+	public boolean solve(int... assumptions) {
+		if (!ok) {
+			return false;
+		}
+		int[] internal = new int[assumptions.length];
+		for (int i = 0; i < internal.length; i++) {
+			internal[i] = toInternal(assumptions[i]);
+		}
+		if (trailLim.length < numVars + internal.length) {
+			trailLim = Arrays.copyOf(trailLim, numVars + internal.length);//assumptions that are already true still get a level
+		}
+		this.assumptions = internal;
+		int result = UNKNOWN;
+		maxLearnts = Math.max(clauses.size() / 3.0, 2000);
+		for (int restarts = 0; result == UNKNOWN; restarts++) {
+			result = search((long) (luby(restarts) * RESTART_BASE));
+			maxLearnts *= 1.1;
+		}
+		cancelUntil(0);
+		this.assumptions = new int[0];
+		return result == SAT;
+	}
+
+	/**
+	 * @param var - variable to get the value of
+	 * @return value of the variable in the last model found by solve()
+	 */
+	public boolean getModelValue(int var) {
+		return model[var - 1];
+	}
+
+	/**
+	 * runs CDCL until the formula is decided or the conflict limit for this restart is reached
+	 * @param conflictLimit - number of conflicts before giving up and restarting
+	 * @return SAT, UNSAT or UNKNOWN
+	 */
+	private int search(long conflictLimit) {
+		long conflicts = 0;
+		while (true) {
+			int conflict = propagate();
+			if (conflict != -1) {
+				conflicts++;
+				if (numLevels == 0) {
+					ok = false;
+					return UNSAT;//conflict without any decisions
+				}
+				int[] learnt = analyze(conflict);
+				int backtrackLevel = 0;
+				if (learnt.length > 1) {
+					backtrackLevel = level[learnt[1] >> 1];
+				}
+				cancelUntil(backtrackLevel);
+				if (learnt.length == 1) {
+					enqueue(learnt[0], -1);
+				} else {
+					int ci = attach(learnt);
+					if (numLearnts == learnts.length) {
+						learnts = Arrays.copyOf(learnts, numLearnts * 2);
+					}
+					learnts[numLearnts++] = ci;
+					bumpClause(ci);
+					enqueue(learnt[0], ci);
+				}
+				varInc /= VAR_DECAY;
+				clauseInc /= CLAUSE_DECAY;
+				if (numLearnts - trailSize >= maxLearnts) {
+					reduceLearnts();
+				}
+			} else {
+				if (conflicts >= conflictLimit) {
+					cancelUntil(0);
+					return UNKNOWN;
+				}
+				int next = -1;
+				while (numLevels < assumptions.length) {
+					int p = assumptions[numLevels];
+					if (valueOf(p) == 1) {
+						trailLim[numLevels++] = trailSize;//already true, an empty level keeps levels and assumptions lined up
+					} else if (valueOf(p) == -1) {
+						return UNSAT;//the clauses imply the assumption is false, but without assumptions they may still be satisfiable
+					} else {
+						next = p;
+						break;
+					}
+				}
+				if (next == -1) {
+					next = pickBranchLiteral();
+				}
+				if (next == -1) {
+					model = new boolean[numVars];//every variable is assigned without conflict
+					for (int v = 0; v < numVars; v++) {
+						model[v] = assigns[v] == 1;
+					}
+					return SAT;
+				}
+				trailLim[numLevels++] = trailSize;
+				enqueue(next, -1);
+			}
+		}
+	}
+
+	/**
+	 * propagates every literal on the trail that hasn't been propagated yet
+	 * @return index of a conflicting clause, or -1 if there is no conflict
+	 */
+	private int propagate() {
+		while (qhead < trailSize) {
+			int falseLit = trail[qhead++] ^ 1;//this literal just became false
+			int[] ws = watches[falseLit];
+			int n = watchSize[falseLit];
+			int j = 0;
+			for (int i = 0; i < n; i++) {
+				int ci = ws[i];
+				int[] c = clauses.get(ci);
+				if (c[0] == falseLit) {//keep the false literal at position 1
+					c[0] = c[1];
+					c[1] = falseLit;
+				}
+				if (valueOf(c[0]) == 1) {
+					ws[j++] = ci;//clause is already satisfied by the other watch
+					continue;
+				}
+				boolean moved = false;
+				for (int k = 2; k < c.length; k++) {
+					if (valueOf(c[k]) != -1) {//found a literal that isn't false, watch it instead
+						c[1] = c[k];
+						c[k] = falseLit;
+						watch(c[1], ci);
+						moved = true;
+						break;
+					}
+				}
+				if (moved) {
+					continue;
+				}
+				ws[j++] = ci;
+				if (valueOf(c[0]) == -1) {//every literal is false
+					while (++i < n) {
+						ws[j++] = ws[i];
+					}
+					watchSize[falseLit] = j;
+					qhead = trailSize;
+					return ci;
+				}
+				enqueue(c[0], ci);//clause is unit
+			}
+			watchSize[falseLit] = j;
+		}
+		return -1;
+	}
+
+	/**
+	 * first-UIP conflict analysis
+	 * @param conflict - index of the conflicting clause
+	 * @return learnt clause, the asserting literal first and a literal of the backtrack level second
+	 */
+	private int[] analyze(int conflict) {
+		int[] learnt = new int[8];
+		int size = 1;//position 0 is saved for the asserting literal
+		int pathCount = 0;
+		int p = -1;
+		int index = trailSize - 1;
+		do {
+			int[] c = clauses.get(conflict);
+			if (conflict < clauseActivity.length && clauseActivity[conflict] > 0) {
+				bumpClause(conflict);//only learnt clauses have an activity
+			}
+			for (int k = p == -1 ? 0 : 1; k < c.length; k++) {//position 0 of a reason clause is p itself
+				int q = c[k];
+				int v = q >> 1;
+				if (!seen[v] && level[v] > 0) {
+					bumpActivity(v);
+					seen[v] = true;
+					if (level[v] >= numLevels) {
+						pathCount++;//assigned at the current level, will be resolved away
+					} else {
+						if (size == learnt.length) {
+							learnt = Arrays.copyOf(learnt, size * 2);
+						}
+						learnt[size++] = q;
+					}
+				}
+			}
+			while (!seen[trail[index] >> 1]) {
+				index--;
+			}
+			p = trail[index--];
+			conflict = reason[p >> 1];
+			seen[p >> 1] = false;
+			pathCount--;
+		} while (pathCount > 0);
+		learnt[0] = p ^ 1;
+
+		int[] all = Arrays.copyOf(learnt, size);
+		int kept = 1;
+		for (int i = 1; i < size; i++) {//drop literals implied by other literals of the clause
+			if (!isRedundant(learnt[i])) {
+				learnt[kept++] = learnt[i];
+			}
+		}
+		for (int i = 1; i < size; i++) {
+			seen[all[i] >> 1] = false;
+		}
+
+		int max = 1;
+		for (int i = 2; i < kept; i++) {
+			if (level[learnt[i] >> 1] > level[learnt[max] >> 1]) {
+				max = i;
+			}
+		}
+		int swap = learnt[1];//highest level after the asserting literal goes second, it gets watched
+		learnt[1] = learnt[max];
+		learnt[max] = swap;
+		return Arrays.copyOf(learnt, kept);
+	}
+
+	/**
+	 * deletes the less active half of the learnt clauses, except binary clauses and clauses that
+	 * are the reason for a current assignment
+	 */
+	private void reduceLearnts() {
+		Integer[] order = new Integer[numLearnts];
+		for (int i = 0; i < numLearnts; i++) {
+			order[i] = learnts[i];
+		}
+		Arrays.sort(order, (a, b) -> Double.compare(clauseActivity[a], clauseActivity[b]));
+		int kept = 0;
+		for (int i = 0; i < order.length; i++) {
+			int ci = order[i];
+			int[] c = clauses.get(ci);
+			boolean locked = reason[c[0] >> 1] == ci && valueOf(c[0]) == 1;
+			if (i < order.length / 2 && c.length > 2 && !locked) {
+				clauses.set(ci, null);
+				clauseActivity[ci] = 0;
+			} else {
+				learnts[kept++] = ci;
+			}
+		}
+		numLearnts = kept;
+		for (int lit = 0; lit < 2 * numVars; lit++) {//drop deleted clauses from the watch lists
+			int j = 0;
+			for (int i = 0; i < watchSize[lit]; i++) {
+				if (clauses.get(watches[lit][i]) != null) {
+					watches[lit][j++] = watches[lit][i];
+				}
+			}
+			watchSize[lit] = j;
+		}
+	}
+
+	private void bumpClause(int ci) {
+		if (ci >= clauseActivity.length) {
+			clauseActivity = Arrays.copyOf(clauseActivity, Math.max(ci + 1, clauseActivity.length * 2));
+		}
+		clauseActivity[ci] += clauseInc;
+		if (clauseActivity[ci] > 1e20) {//rescale everything before it overflows
+			for (int i = 0; i < numLearnts; i++) {
+				clauseActivity[learnts[i]] *= 1e-20;
+			}
+			clauseInc *= 1e-20;
+		}
+	}
+
+	/**
+	 * @param lit - literal of a learnt clause
+	 * @return whether every other literal of its reason is already in the clause
+	 */
+	private boolean isRedundant(int lit) {
+		int r = reason[lit >> 1];
+		if (r == -1) {
+			return false;
+		}
+		int[] c = clauses.get(r);
+		for (int k = 1; k < c.length; k++) {
+			int v = c[k] >> 1;
+			if (!seen[v] && level[v] > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * undoes assignments down to the given decision level
+	 */
+	private void cancelUntil(int target) {
+		if (numLevels <= target) {
+			return;
+		}
+		for (int i = trailSize - 1; i >= trailLim[target]; i--) {
+			int v = trail[i] >> 1;
+			phase[v] = assigns[v] == 1;
+			assigns[v] = 0;
+			reason[v] = -1;
+			if (heapIndex[v] == -1) {
+				heapInsert(v);
+			}
+		}
+		trailSize = trailLim[target];
+		qhead = trailSize;
+		numLevels = target;
+	}
+
+	/**
+	 * @return unassigned literal with the most active variable, -1 if every variable is assigned
+	 */
+	private int pickBranchLiteral() {
+		while (heapSize > 0) {
+			int v = heapRemoveMax();
+			if (assigns[v] == 0) {
+				return 2 * v + (phase[v] ? 0 : 1);
+			}
+		}
+		return -1;
+	}
+
+	private void enqueue(int lit, int from) {
+		int v = lit >> 1;
+		assigns[v] = (byte) ((lit & 1) == 0 ? 1 : -1);
+		level[v] = numLevels;
+		reason[v] = from;
+		trail[trailSize++] = lit;
+	}
+
+	/**
+	 * stores a clause of at least two literals and watches its first two
+	 * @return index of the clause
+	 */
+	private int attach(int[] c) {
+		int ci = clauses.size();
+		clauses.add(c);
+		watch(c[0], ci);
+		watch(c[1], ci);
+		return ci;
+	}
+
+	private void watch(int lit, int ci) {
+		if (watchSize[lit] == watches[lit].length) {
+			watches[lit] = Arrays.copyOf(watches[lit], watchSize[lit] * 2);
+		}
+		watches[lit][watchSize[lit]++] = ci;
+	}
+
+	/**
+	 * @return 1 if the literal is true, -1 if false, 0 if unassigned
+	 */
+	private int valueOf(int lit) {
+		int a = assigns[lit >> 1];
+		return (lit & 1) == 0 ? a : -a;
+	}
+
+	private int toInternal(int literal) {
+		if (literal == 0 || Math.abs(literal) > numVars) {
+			throw new IllegalArgumentException("Unknown variable in literal " + literal);
+		}
+		return literal > 0 ? 2 * (literal - 1) : 2 * (-literal - 1) + 1;
+	}
+
+	private void bumpActivity(int v) {
+		activity[v] += varInc;
+		if (activity[v] > 1e100) {//rescale everything before it overflows
+			for (int i = 0; i < numVars; i++) {
+				activity[i] *= 1e-100;
+			}
+			varInc *= 1e-100;
+		}
+		if (heapIndex[v] != -1) {
+			siftUp(heapIndex[v]);
+		}
+	}
+
+	/**
+	 * @return the x-th element of the Luby sequence 1,1,2,1,1,2,4,1,...
+	 */
+	private static double luby(int x) {
+		int size = 1;
+		int seq = 0;
+		while (size < x + 1) {
+			seq++;
+			size = 2 * size + 1;
+		}
+		while (size - 1 != x) {
+			size = (size - 1) >> 1;
+			seq--;
+			x = x % size;
+		}
+		return Math.pow(2, seq);
+	}
+
+	private void heapInsert(int v) {
+		heap[heapSize] = v;
+		heapIndex[v] = heapSize;
+		siftUp(heapSize++);
+	}
+
+	private int heapRemoveMax() {
+		int top = heap[0];
+		heapIndex[top] = -1;
+		heapSize--;
+		if (heapSize > 0) {
+			heap[0] = heap[heapSize];
+			heapIndex[heap[0]] = 0;
+			siftDown(0);
+		}
+		return top;
+	}
+
+	private void siftUp(int i) {
+		int v = heap[i];
+		while (i > 0 && activity[heap[(i - 1) >> 1]] < activity[v]) {
+			heap[i] = heap[(i - 1) >> 1];
+			heapIndex[heap[i]] = i;
+			i = (i - 1) >> 1;
+		}
+		heap[i] = v;
+		heapIndex[v] = i;
+	}
+
+	private void siftDown(int i) {
+		int v = heap[i];
+		while (2 * i + 1 < heapSize) {
+			int child = 2 * i + 1;
+			if (child + 1 < heapSize && activity[heap[child + 1]] > activity[heap[child]]) {
+				child++;
+			}
+			if (activity[heap[child]] <= activity[v]) {
+				break;
+			}
+			heap[i] = heap[child];
+			heapIndex[heap[i]] = i;
+			i = child;
+		}
+		heap[i] = v;
+		heapIndex[v] = i;
+	}
+}
@@ -0,0 +1,48 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * lazily walks the satisfying rows of a truth table, evaluating 64 rows at a time only when the
+ * rows before them have been used up
+ * a row is the packed assignment LogicalExpression.evaluate(long) takes
+ */
+public class SatisfyingRowIterator implements PrimitiveIterator.OfLong {
+	private final LogicalSentence sentence;
+	private final long[] registers;//scratch registers for evaluateWord()
+	private final long mask;
+	private final long words;
+	private long nextWord;//next word of the truth table to evaluate
+	private long base;//row of bit 0 of current
+	private long current;//satisfying rows of the current word that haven't been returned
+
+	/**
+	 * @param sentence - sentence whose satisfying rows to walk
+	 * @param words - number of words of the truth table to walk (0 for no rows)
+	 */
+	SatisfyingRowIterator(LogicalSentence sentence, long words) {
+		this.sentence = sentence;
+		this.registers = new long[sentence.getNumOfRegisters()];
+		this.mask = sentence.wordMask();
+		this.words = words;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (current == 0 && nextWord < words) {
+			current = sentence.evaluateWord(nextWord, registers) & mask;
+			base = nextWord << 6;
+			nextWord++;
+		}
+		return current != 0;
+	}
+
+	@Override
+	public long nextLong() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		int bit = Long.numberOfTrailingZeros(current);
+		current &= current - 1;//clear the lowest row
+		return base + bit;
+	}
+}
@@ -0,0 +1,150 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * bounded cache of parsed sentences keyed by their normalized text, so the same sentence given many
+ * times is parsed and analyzed once
+ * the cache is split into segments that each keep their own least recently used order behind their own
+ * lock, so lookups of different sentences don't wait on each other, and sentences are parsed outside the lock
+ * the cache bounds the sentences it keeps, not the variable names: a sentence that is parsed interns its
+ * variables in the SymbolTable, which keeps them after the sentence is evicted (lookups that hit don't parse)
+ */
+public class SentenceCache {
+	private static final int MAX_SEGMENTS = 16;
+	private static final int MIN_SEGMENT_SIZE = 4;//smaller caches have fewer segments, down to one with a single least recently used order
+
+	private final Segment[] segments;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param maximumSize - most sentences kept, least recently used ones are evicted past this
+	 * (the order is kept per segment, a cache smaller than 2 * MIN_SEGMENT_SIZE has a single one)
+	 */
+	public SentenceCache(int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+		}
+		segments = new Segment[Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, maximumSize / MIN_SEGMENT_SIZE)))];
+		int base = maximumSize / segments.length;
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment(base + (i < maximumSize % segments.length ? 1 : 0));
+		}
+	}
+
+	/**
+	 * @param s - a logical sentence as a string
+	 * @return the parsed sentence, shared with every other caller that gave the same normalized text
+	 */
+	public CachedSentence get(String s) {
+		String key = normalize(s);
+		Segment segment = segments[(key.hashCode() ^ (key.hashCode() >>> 16)) & (segments.length - 1)];
+		CachedSentence cached;
+		synchronized (segment) {
+			cached = segment.get(key);
+		}
+		if (cached != null) {
+			hits.increment();
+			return cached;
+		}
+		misses.increment();
+		CachedSentence parsed = new CachedSentence(key);//parse outside the lock
+		synchronized (segment) {
+			cached = segment.putIfAbsent(key, parsed);//another thread may have parsed it meanwhile
+		}
+		return cached != null ? cached : parsed;
+	}
+
+	/**
+	 * @param s - a logical sentence as a string
+	 * @return the sentence's tokens separated by single spaces, so sentences that only differ
+	 * in whitespace have the same text, worked out without interning the variables
+	 */
+	public static String normalize(String s) {
+		return Lexer.normalize(s);
+	}
+
+	/**
+	 * @return number of sentences in the cache
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * removes every sentence, statistics are kept
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * @return number of lookups that found the sentence in the cache
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of lookups that had to parse the sentence
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of sentences evicted to stay under the maximum size
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return fraction of lookups that were hits, 0 before the first lookup
+	 */
+	public double getHitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	@Override
+	public String toString() {
+		return "SentenceCache[size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "]";
+	}
+
+	/**
+	 * one segment of the cache, a LinkedHashMap in access order that drops its eldest entry when full
+	 * callers lock the segment itself
+	 */
+	private final class Segment extends LinkedHashMap<String,CachedSentence> {
+		private static final long serialVersionUID = 1L;
+		private final int capacity;
+
+		Segment(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String,CachedSentence> eldest) {
+			if (size() > capacity) {
+				evictions.increment();
+				return true;
+			}
+			return false;
+		}
+	}
+}
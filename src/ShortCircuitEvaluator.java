@@ -0,0 +1,493 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * evaluates a sentence on an operator tree, stopping an & at its first false operand and an | at its first true one
+ * the tree is built from the compiled registers: chains of the same operator become one node with many
+ * operands, ~ is pushed into the edges (De Morgan lets a negated & join an |), -> becomes | and <-> a negated ^,
+ * and constants are folded away. A wide rule is then one node whose operands can be tried in any order,
+ * reorder() measures how often each operand decides its node and puts the cheap, decisive ones first
+ * nodes are numbered children first, the operands of node i are edges[start[i]] to edges[start[i + 1] - 1]
+ * and an edge is (node << 1) | negated. An evaluator never changes once built, so threads can share it
+ */
+public final class ShortCircuitEvaluator {
+	private static final int VARIABLE = 0, TRUE = 1, FALSE = 2, AND = 3, OR = 4, XOR = 5;//kinds of node, AND and up have operands
+	private static final int DEFAULT_SAMPLES = 4096;//assignments reorder() measures on when it isn't given any
+	private static final ThreadLocal<int[]> stackScratch = ThreadLocal.withInitial(() -> new int[0]);//frames of evaluate()
+
+	private final String[] variables;
+	private final int[] kind;
+	private final int[] arg;//slot of a VARIABLE, 1 for an XOR whose parity is negated
+	private final int[] start;
+	private final int[] edges;
+	private final int rootEdge;
+	private final int depth;//operator nodes on the longest path from the root, the frames evaluate() needs
+
+	private ShortCircuitEvaluator(String[] variables, int[] kind, int[] arg, int[] start, int[] edges, int rootEdge, int depth) {
+		this.variables = variables;
+		this.kind = kind;
+		this.arg = arg;
+		this.start = start;
+		this.edges = edges;
+		this.rootEdge = rootEdge;
+		this.depth = depth;
+	}
+
+	/**
+	 * @param variables - variables of the sentence in slot order
+	 * @param value - value of the sentence on every assignment
+	 * @return evaluator of a constant
+	 */
+	static ShortCircuitEvaluator constant(String[] variables, boolean value) {
+		return new ShortCircuitEvaluator(variables, new int[] {value ? TRUE : FALSE}, new int[1], new int[2], new int[0], 0, 0);
+	}
+
+	/**
+	 * builds the tree of a well formed sentence
+	 * the registers are walked twice: from the root down to find the registers that start a node (the root,
+	 * and operands whose operator differs from the node they're under) and gather their operands, then from the
+	 * leaves up to build those nodes. A register absorbed into a node above it never gets a node of its own
+	 * @param sentence - sentence to build the tree of
+	 */
+	static ShortCircuitEvaluator build(LogicalSentence sentence) {
+		int[] code = sentence.getCode();
+		int numOfRegisters = sentence.getNumOfRegisters();
+		int[][] operands = new int[numOfRegisters][];//(register << 1) | negated of each operand of the registers that start a node
+		int[] folded = new int[numOfRegisters];//1 if a constant operand decided the node to false, 2 to true
+		int[] parity = new int[numOfRegisters];
+		boolean[] needed = new boolean[numOfRegisters];
+		needed[skipNots(code, sentence.getRootRegister())] = true;
+		int[] stack = new int[16];
+		int[] gathered = new int[16];
+		for (int r = numOfRegisters - 1; r >= 0; r--) {
+			int op = code[3 * r];
+			if (!needed[r] || op >= 0 || op == LogicalSentence.OP_TRUE || op == LogicalSentence.OP_FALSE) {
+				continue;
+			}
+			int nodeKind = kindOf(op, 0);
+			int size = 0, top = 0;
+			parity[r] = op == LogicalSentence.OP_IFF ? 1 : 0;
+			stack = push(stack, top, code, r, 0);
+			top += 2;
+			while (top > 0 && folded[r] == 0) {
+				int entry = stack[--top];
+				int x = entry >>> 1;
+				int negated = entry & 1;
+				while (code[3 * x] == LogicalSentence.OP_NOT) {
+					x = code[3 * x + 1];
+					negated ^= 1;
+				}
+				int xOp = code[3 * x];
+				if (xOp == LogicalSentence.OP_TRUE || xOp == LogicalSentence.OP_FALSE) {
+					int value = (xOp == LogicalSentence.OP_TRUE ? 1 : 0) ^ negated;
+					if (nodeKind == XOR) {
+						parity[r] ^= value;
+					} else if ((value == 1) == (nodeKind == OR)) {
+						folded[r] = value + 1;//false decides an &, true decides an |
+					}
+				} else if (xOp < 0 && kindOf(xOp, negated) == nodeKind) {//same operator, its operands join this node
+					if (nodeKind == XOR) {
+						parity[r] ^= negated ^ (xOp == LogicalSentence.OP_IFF ? 1 : 0);
+					}
+					stack = push(stack, top, code, x, negated);
+					top += 2;
+				} else {
+					if (size == gathered.length) {
+						gathered = Arrays.copyOf(gathered, size * 2);
+					}
+					gathered[size++] = (x << 1) | negated;
+					needed[x] = true;
+				}
+			}
+			operands[r] = Arrays.copyOf(gathered, size);
+		}
+		int[] edgeOf = new int[numOfRegisters];
+		int[] nodeOfSlot = new int[sentence.getNumOfDistinctVariablesInSentence()];
+		Arrays.fill(nodeOfSlot, -1);
+		Builder builder = new Builder();
+		int trueNode = -1;
+		for (int r = 0; r < numOfRegisters; r++) {
+			int op = code[3 * r];
+			if (op >= 0) {
+				if (nodeOfSlot[op] < 0) {
+					nodeOfSlot[op] = builder.leaf(VARIABLE, op);
+				}
+				edgeOf[r] = nodeOfSlot[op] << 1;
+			} else if (op == LogicalSentence.OP_NOT) {
+				edgeOf[r] = edgeOf[code[3 * r + 1]] ^ 1;
+			} else if (op == LogicalSentence.OP_TRUE || op == LogicalSentence.OP_FALSE || folded[r] != 0 || (needed[r] && operands[r].length == 0)) {
+				boolean value;
+				if (op == LogicalSentence.OP_TRUE || op == LogicalSentence.OP_FALSE) {
+					value = op == LogicalSentence.OP_TRUE;
+				} else if (folded[r] != 0) {
+					value = folded[r] == 2;
+				} else {
+					int nodeKind = kindOf(op, 0);
+					value = nodeKind == AND || (nodeKind == XOR && parity[r] == 1);//identity of the operator, or the leftover parity
+				}
+				if (trueNode < 0) {
+					trueNode = builder.leaf(TRUE, 0);
+				}
+				edgeOf[r] = (trueNode << 1) | (value ? 0 : 1);
+			} else if (needed[r]) {
+				int[] list = operands[r];
+				int nodeKind = kindOf(op, 0);
+				if (list.length == 1) {//nothing to combine
+					edgeOf[r] = edgeOf[list[0] >>> 1] ^ (list[0] & 1) ^ (nodeKind == XOR ? parity[r] : 0);
+				} else {
+					int[] nodeEdges = new int[list.length];
+					for (int i = 0; i < list.length; i++) {
+						nodeEdges[i] = edgeOf[list[i] >>> 1] ^ (list[i] & 1);
+					}
+					edgeOf[r] = builder.operator(nodeKind, nodeKind == XOR ? parity[r] : 0, nodeEdges) << 1;
+				}
+			}
+		}
+		return builder.compact(sentence.getDistinctVariables(), edgeOf[sentence.getRootRegister()]);
+	}
+
+	/**
+	 * @return kind of node an operator makes, negated or not
+	 */
+	private static int kindOf(int op, int negated) {
+		if (op == LogicalSentence.OP_XOR || op == LogicalSentence.OP_IFF) {
+			return XOR;
+		}
+		boolean and = op == LogicalSentence.OP_AND;//-> is an |
+		return and ^ (negated == 1) ? AND : OR;
+	}
+
+	/**
+	 * @return register under any ~ in front of a register
+	 */
+	private static int skipNots(int[] code, int r) {
+		while (code[3 * r] == LogicalSentence.OP_NOT) {
+			r = code[3 * r + 1];
+		}
+		return r;
+	}
+
+	/**
+	 * pushes the operands of a register for gathering, the second one first so the first is popped first
+	 * @return the stack, grown if it was full
+	 */
+	private static int[] push(int[] stack, int top, int[] code, int r, int negated) {
+		if (top + 2 > stack.length) {
+			stack = Arrays.copyOf(stack, stack.length * 2);
+		}
+		int op = code[3 * r];
+		int leftNegated = negated;
+		int rightNegated = op == LogicalSentence.OP_XOR || op == LogicalSentence.OP_IFF ? 0 : negated;//a ^'s negation is in its parity
+		if (op == LogicalSentence.OP_IMPLIES) {
+			leftNegated ^= 1;//a -> b is ~a | b
+		}
+		stack[top] = (code[3 * r + 2] << 1) | rightNegated;
+		stack[top + 1] = (code[3 * r + 1] << 1) | (op == LogicalSentence.OP_XOR || op == LogicalSentence.OP_IFF ? 0 : leftNegated);
+		return stack;
+	}
+
+	/**
+	 * @return result of evaluation of the sentence
+	 * @param assignmentBits - packed values, the variable in slot k is bit (n - 1 - k)
+	 */
+	public boolean evaluate(long assignmentBits) {
+		return run(assignmentBits, null);
+	}
+
+	/**
+	 * @return result of evaluation of the sentence
+	 * @param assignment - value of each variable, indexed by slot (same order as getDistinctVariables())
+	 */
+	public boolean evaluate(boolean[] assignment) {
+		return run(0, assignment);
+	}
+
+	/**
+	 * @return result of evaluation of the sentence
+	 * @param values - values to evaluate on the sentence
+	 */
+	public boolean evaluate(HashMap<String,Integer> values) {
+		boolean[] assignment = new boolean[variables.length];
+		for (int i = 0; i < variables.length; i++) {
+			assignment[i] = values.get(variables[i]) == 1;
+		}
+		return run(0, assignment);
+	}
+
+	/**
+	 * walks the tree depth first with the frames in an array, a frame is the node and the position of its next operand
+	 * (with the parity so far for an XOR in the low bit)
+	 */
+	private boolean run(long assignmentBits, boolean[] assignment) {
+		Metrics m = LogicalSentence.getMetrics();
+		if (m != null) {
+			m.evaluationsRun(1);
+		}
+		int node = rootEdge >>> 1;
+		if (kind[node] < AND) {
+			return leaf(node, assignmentBits, assignment) ^ ((rootEdge & 1) != 0);
+		}
+		int[] frames = stackScratch.get();
+		if (frames.length < 2 * depth) {
+			frames = new int[2 * depth];
+			stackScratch.set(frames);
+		}
+		int sp = 0;
+		int pos = start[node];
+		int parity = arg[node];
+		while (true) {
+			boolean value;
+			int nodeKind = kind[node];
+			if (pos == start[node + 1]) {//no operand decided it
+				value = nodeKind == AND || (nodeKind == XOR && parity == 1);
+			} else {
+				int edge = edges[pos++];
+				int child = edge >>> 1;
+				if (kind[child] >= AND) {//descend
+					frames[sp++] = node;
+					frames[sp++] = (pos << 1) | parity;
+					node = child;
+					pos = start[child];
+					parity = arg[child];
+					continue;
+				}
+				value = leaf(child, assignmentBits, assignment) ^ ((edge & 1) != 0);
+				if (nodeKind == XOR) {
+					parity ^= value ? 1 : 0;
+					continue;
+				}
+				if (value != (nodeKind == OR)) {
+					continue;//doesn't decide it
+				}
+			}
+			while (true) {//the node is done, hand its value up until a node still needs operands
+				if (sp == 0) {
+					return value ^ ((rootEdge & 1) != 0);
+				}
+				int frame = frames[--sp];
+				node = frames[--sp];
+				pos = frame >>> 1;
+				parity = frame & 1;
+				value ^= (edges[pos - 1] & 1) != 0;
+				nodeKind = kind[node];
+				if (nodeKind == XOR) {
+					parity ^= value ? 1 : 0;
+					break;
+				}
+				if (value != (nodeKind == OR)) {
+					break;
+				}
+			}
+		}
+	}
+
+	private boolean leaf(int node, long assignmentBits, boolean[] assignment) {
+		if (kind[node] == VARIABLE) {
+			int slot = arg[node];
+			return assignment == null ? ((assignmentBits >>> (variables.length - 1 - slot)) & 1) != 0 : assignment[slot];
+		}
+		return kind[node] == TRUE;
+	}
+
+	/**
+	 * measures on random assignments, or on every assignment when there are few enough
+	 * @return an evaluator of the same sentence with the operands reordered, see reorder(long[])
+	 */
+	public ShortCircuitEvaluator reorder() {
+		int n = variables.length;
+		if (n <= 12) {//2^12 == DEFAULT_SAMPLES
+			int words = Math.max(1, (1 << n) >>> 6);
+			long[][] columns = new long[n][words];
+			for (int k = 0; k < n; k++) {
+				for (int w = 0; w < words; w++) {
+					columns[k][w] = LogicalSentence.rowPattern(n - 1 - k, w);
+				}
+			}
+			return reorder(columns, 1 << n);
+		}
+		Random random = new Random(0);
+		long[][] columns = new long[n][DEFAULT_SAMPLES >>> 6];
+		for (long[] column : columns) {
+			for (int w = 0; w < column.length; w++) {
+				column[w] = random.nextLong();
+			}
+		}
+		return reorder(columns, DEFAULT_SAMPLES);
+	}
+
+	/**
+	 * measures how often each operand decides its node on sample assignments, the kind the evaluator will be
+	 * used on, and puts the operands of each & and | in the order with the least expected work: by cost over
+	 * chance of deciding, cheapest per decision first (the best order when the operands are independent)
+	 * @param sampleRows - assignments packed like evaluate(long)
+	 * @return an evaluator of the same sentence with the operands reordered
+	 */
+	public ShortCircuitEvaluator reorder(long[] sampleRows) {
+		int n = variables.length;
+		if (n > 64) {
+			throw new IllegalStateException("packed rows hold at most 64 variables, use reorder()");
+		}
+		long[][] columns = new long[n][(sampleRows.length + 63) >>> 6];
+		for (int i = 0; i < sampleRows.length; i++) {
+			for (int k = 0; k < n; k++) {
+				columns[k][i >>> 6] |= ((sampleRows[i] >>> (n - 1 - k)) & 1) << i;
+			}
+		}
+		return reorder(columns, sampleRows.length);
+	}
+
+	/**
+	 * @param columns - values of each variable on the samples, sample r is bit (r % 64) of word (r / 64)
+	 * @param samples - number of samples
+	 */
+	private ShortCircuitEvaluator reorder(long[][] columns, int samples) {
+		int numOfNodes = kind.length;
+		long[] ones = new long[numOfNodes];//samples each node is true on
+		long[] values = new long[numOfNodes];
+		for (int w = 0; w < (samples + 63) >>> 6; w++) {
+			long mask = samples - (w << 6) >= 64 ? -1L : (1L << (samples - (w << 6))) - 1;
+			for (int i = 0; i < numOfNodes; i++) {//operands come before the nodes they're in
+				long value;
+				if (kind[i] == VARIABLE) {
+					value = columns[arg[i]][w];
+				} else if (kind[i] < AND) {
+					value = kind[i] == TRUE ? -1L : 0;
+				} else {
+					value = kind[i] == AND ? -1L : kind[i] == OR ? 0 : -(long)arg[i];
+					for (int p = start[i]; p < start[i + 1]; p++) {
+						long operand = values[edges[p] >>> 1] ^ -(long)(edges[p] & 1);
+						value = kind[i] == AND ? value & operand : kind[i] == OR ? value | operand : value ^ operand;
+					}
+				}
+				values[i] = value;
+				ones[i] += Long.bitCount(value & mask);
+			}
+		}
+		double[] cost = new double[numOfNodes];//expected operands looked at to evaluate each node
+		int[] sorted = edges.clone();
+		for (int i = 0; i < numOfNodes; i++) {
+			if (kind[i] < AND) {
+				cost[i] = 1;
+				continue;
+			}
+			int from = start[i], to = start[i + 1];
+			if (kind[i] == XOR) {//every operand is needed
+				cost[i] = 1;
+				for (int p = from; p < to; p++) {
+					cost[i] += cost[edges[p] >>> 1];
+				}
+				continue;
+			}
+			Integer[] order = new Integer[to - from];
+			double[] decides = new double[to - from];
+			double[] rank = new double[to - from];
+			for (int p = from; p < to; p++) {
+				int child = edges[p] >>> 1;
+				long trueSamples = (edges[p] & 1) == 0 ? ones[child] : samples - ones[child];
+				long deciding = kind[i] == OR ? trueSamples : samples - trueSamples;
+				decides[p - from] = (deciding + 1.0) / (samples + 2.0);//never 0 or 1 from a finite sample
+				rank[p - from] = cost[child] / decides[p - from];
+				order[p - from] = p - from;
+			}
+			Arrays.sort(order, (a, b) -> Double.compare(rank[a], rank[b]));
+			double reached = 1;//chance no earlier operand decided the node
+			cost[i] = 1;
+			for (int q = 0; q < order.length; q++) {
+				int p = from + order[q];
+				sorted[from + q] = edges[p];
+				cost[i] += reached * cost[edges[p] >>> 1];
+				reached *= 1 - decides[order[q]];
+			}
+		}
+		return new ShortCircuitEvaluator(variables, kind, arg, start, sorted, rootEdge, depth);
+	}
+
+	/**
+	 * @return number of nodes in the tree, variables and constants included
+	 */
+	public int getNumOfNodes() {
+		return kind.length;
+	}
+
+	/**
+	 * @return variables in slot order
+	 */
+	public String[] getVariables() {
+		return variables.clone();
+	}
+
+	/**
+	 * nodes while the tree is built, including ones that end up unused
+	 */
+	private static final class Builder {
+		private int[] kind = new int[16];
+		private int[] arg = new int[16];
+		private int[][] operands = new int[16][];
+		private int size;
+
+		int leaf(int leafKind, int leafArg) {
+			return operator(leafKind, leafArg, null);
+		}
+
+		int operator(int nodeKind, int nodeArg, int[] nodeEdges) {
+			if (size == kind.length) {
+				kind = Arrays.copyOf(kind, size * 2);
+				arg = Arrays.copyOf(arg, size * 2);
+				operands = Arrays.copyOf(operands, size * 2);
+			}
+			kind[size] = nodeKind;
+			arg[size] = nodeArg;
+			operands[size] = nodeEdges;
+			return size++;
+		}
+
+		/**
+		 * drops the nodes the root doesn't reach and lays the rest out, operands before the nodes they're in
+		 */
+		ShortCircuitEvaluator compact(String[] variables, int rootEdge) {
+			boolean[] reached = new boolean[size];
+			reached[rootEdge >>> 1] = true;
+			for (int i = size - 1; i >= 0; i--) {//operands were always built before the nodes they're in
+				if (reached[i] && operands[i] != null) {
+					for (int edge : operands[i]) {
+						reached[edge >>> 1] = true;
+					}
+				}
+			}
+			int[] renumbered = new int[size];
+			int count = 0, numOfEdges = 0;
+			for (int i = 0; i < size; i++) {
+				if (reached[i]) {
+					renumbered[i] = count++;
+					numOfEdges += operands[i] == null ? 0 : operands[i].length;
+				}
+			}
+			int[] newKind = new int[count];
+			int[] newArg = new int[count];
+			int[] start = new int[count + 1];
+			int[] edges = new int[numOfEdges];
+			int[] height = new int[count];
+			for (int i = 0, e = 0; i < size; i++) {
+				if (!reached[i]) {
+					continue;
+				}
+				int j = renumbered[i];
+				newKind[j] = kind[i];
+				newArg[j] = arg[i];
+				start[j] = e;
+				if (operands[i] != null) {
+					for (int edge : operands[i]) {
+						int child = renumbered[edge >>> 1];
+						edges[e++] = (child << 1) | (edge & 1);
+						height[j] = Math.max(height[j], height[child]);
+					}
+					height[j]++;
+				}
+				start[j + 1] = e;
+			}
+			int root = renumbered[rootEdge >>> 1];
+			return new ShortCircuitEvaluator(variables, newKind, newArg, start, edges, (root << 1) | (rootEdge & 1), height[root]);
+		}
+	}
+}
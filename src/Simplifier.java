@@ -0,0 +1,399 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+
+/**
+ * algebraic rewriting of an expression DAG before it is evaluated
+ * negations are pushed down to the variables (De Morgan, double negation) so the result is in
+ * negation normal form, and every run of the same operator is flattened and simplified with
+ * constant folding, idempotence (a&a = a), complement (a&~a = 0), absorption (a&(a|b) = a, including
+ * (a|b)&(a|b|c) = a|b) and a&(~a|b) = a&b, and the same rules with & and | swapped
+ * variables that only appeared in redundant terms disappear from the result
+ * a->b joins the runs of | as ~a|b. ^ and <-> are kept as they are, a negation turns one into the other
+ * (~(a^b) = a<->b) instead of expanding them, and a^0 = a, a^1 = ~a, a^a = 0, ~a^b = a<->b fold them
+ */
+public class Simplifier {
+	private static final int SUBSUMPTION_LIMIT = 256;//runs with more |-terms inside an & (or the other way) skip the pairwise absorption check
+
+	private final HashMap<Expr,Expr> positive = new HashMap<>();//simplified form of each node
+	private final HashMap<Expr,Expr> negative = new HashMap<>();//simplified form of the negation of each node
+
+	private Simplifier() {
+	}
+
+	/**
+	 * @param e - expression to simplify
+	 * @return an equivalent expression in negation normal form, no bigger than needed by the rules above
+	 */
+	public static Expr simplify(Expr e) {
+		Simplifier simplifier = new Simplifier();
+		simplifier.visit(e);
+		return simplifier.positive.get(e);
+	}
+
+	/**
+	 * simplifies e and everything under it, with an explicit stack since sentences can be long
+	 * chains that are too deep to recurse on
+	 */
+	private void visit(Expr e) {
+		ArrayDeque<Frame> stack = new ArrayDeque<>();
+		stack.push(new Frame(e, false));
+		while (!stack.isEmpty()) {
+			Frame f = stack.peek();
+			HashMap<Expr,Expr> memo = f.negated ? negative : positive;
+			Expr node = f.node;
+			if (memo.containsKey(node)) {
+				stack.pop();
+				continue;
+			}
+			if (node.getLeft() == null) {//variable or constant
+				memo.put(node, literal(node, f.negated));
+				stack.pop();
+			} else if (node.getOp() == Lexer.NOT) {//~ just flips what the operand is wanted as
+				Expr operand = (f.negated ? positive : negative).get(node.getLeft());
+				if (operand == null) {
+					stack.push(new Frame(node.getLeft(), !f.negated));
+				} else {
+					memo.put(node, operand);
+					stack.pop();
+				}
+			} else if (node.getOp() == Lexer.XOR || node.getOp() == Lexer.IFF) {
+				Expr a = positive.get(node.getLeft());
+				Expr b = positive.get(node.getRight());
+				if (a == null || b == null) {
+					if (a == null) {
+						stack.push(new Frame(node.getLeft(), false));
+					}
+					if (b == null) {
+						stack.push(new Frame(node.getRight(), false));
+					}
+					continue;
+				}
+				boolean xor = (node.getOp() == Lexer.XOR) != f.negated;//~(a^b) = a<->b
+				Expr constant = isConstant(a) ? a : isConstant(b) ? b : null;
+				if (constant == null) {
+					memo.put(node, parity(xor, a, b));
+				} else if ((constant.getOp() == Lexer.TRUE) != xor) {
+					memo.put(node, constant == a ? b : a);//a^0 = a, a<->1 = a
+				} else {
+					Expr other = constant == a ? node.getRight() : node.getLeft();
+					Expr negated = negative.get(other);//a^1 = ~a, a<->0 = ~a
+					if (negated == null) {
+						stack.push(new Frame(other, true));
+						continue;
+					}
+					memo.put(node, negated);
+				}
+				stack.pop();
+			} else {
+				if (f.terms == null) {
+					f.collectTerms();
+				}
+				boolean waiting = false;
+				for (int i = 0; i < f.terms.size(); i++) {
+					boolean negated = f.termNegated.get(i);
+					if (!(negated ? negative : positive).containsKey(f.terms.get(i))) {
+						stack.push(new Frame(f.terms.get(i), negated));
+						waiting = true;
+					}
+				}
+				if (!waiting) {
+					ArrayList<Expr> simplified = new ArrayList<>(f.terms.size());
+					for (int i = 0; i < f.terms.size(); i++) {
+						simplified.add((f.termNegated.get(i) ? negative : positive).get(f.terms.get(i)));
+					}
+					memo.put(node, combine(f.op, simplified));
+					stack.pop();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param xor - whether the node is wanted as ^ (otherwise as <->)
+	 * @param a - simplified first operand, not a constant
+	 * @param b - simplified second operand, not a constant
+	 * @return simplified a ^ b (or a <-> b)
+	 */
+	private static Expr parity(boolean xor, Expr a, Expr b) {
+		if (a.getOp() == Lexer.NOT) {
+			a = a.getLeft();//~a^b = a<->b, ~ is only left on variables
+			xor = !xor;
+		}
+		if (b.getOp() == Lexer.NOT) {
+			b = b.getLeft();
+			xor = !xor;
+		}
+		if (a == b) {
+			return Expr.constant(!xor);//a^a = 0, a<->a = 1
+		}
+		return Expr.operator(xor ? Lexer.XOR : Lexer.IFF, a, b);
+	}
+
+	private static boolean isConstant(Expr e) {
+		return e.getOp() == Lexer.TRUE || e.getOp() == Lexer.FALSE;
+	}
+
+	/**
+	 * @return the variable or constant, negated if asked for
+	 */
+	private static Expr literal(Expr leaf, boolean negated) {
+		if (!negated) {
+			return leaf;
+		}
+		if (leaf.getOp() == Expr.VARIABLE) {
+			return Expr.not(leaf);
+		}
+		return Expr.constant(leaf.getOp() == Lexer.FALSE);
+	}
+
+	/**
+	 * applies the rules to a flattened run of one operator
+	 * @param op - Lexer.AND or Lexer.OR
+	 * @param terms - simplified operands of the run
+	 * @return simplified run
+	 */
+	private static Expr combine(int op, ArrayList<Expr> terms) {
+		int dual = op == Lexer.AND ? Lexer.OR : Lexer.AND;
+		Expr identity = Expr.constant(op == Lexer.AND);//a&1 = a, a|0 = a
+		Expr zero = Expr.constant(op != Lexer.AND);//a&0 = 0, a|1 = 1
+		LinkedHashSet<Expr> operands = new LinkedHashSet<>();
+		for (Expr t : terms) {
+			if (t == zero) {
+				return zero;
+			}
+			if (t != identity) {
+				flatten(t, op, operands);
+			}
+		}
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			HashSet<Expr> positives = new HashSet<>();//variables that are operands
+			HashSet<Expr> negatives = new HashSet<>();//variables whose negation is an operand
+			for (Expr o : operands) {
+				if (o.getOp() == Expr.VARIABLE) {
+					positives.add(o);
+				} else if (o.getOp() == Lexer.NOT) {
+					negatives.add(o.getLeft());
+				}
+			}
+			for (Expr v : negatives) {
+				if (positives.contains(v)) {
+					return zero;//complement
+				}
+			}
+			ArrayList<Expr> duals = new ArrayList<>();
+			for (Expr o : operands) {
+				if (o.getOp() == dual) {
+					duals.add(o);
+				}
+			}
+			HashMap<Expr,LinkedHashSet<Expr>> itemsOf = new HashMap<>();
+			for (Expr c : duals) {
+				LinkedHashSet<Expr> items = new LinkedHashSet<>();
+				flatten(c, dual, items);
+				boolean absorbed = false;
+				ArrayList<Expr> kept = new ArrayList<>();
+				for (Expr item : items) {
+					if (operands.contains(item)) {
+						absorbed = true;//a&(a|b) = a
+						break;
+					}
+					boolean complemented = item.getOp() == Lexer.NOT ? positives.contains(item.getLeft())
+							: item.getOp() == Expr.VARIABLE && negatives.contains(item);
+					if (!complemented) {
+						kept.add(item);//a&(~a|b) = a&b drops ~a
+					}
+				}
+				if (absorbed) {
+					operands.remove(c);
+					changed = true;
+				} else if (kept.size() < items.size()) {
+					if (kept.isEmpty()) {
+						return zero;
+					}
+					operands.remove(c);
+					flatten(build(dual, kept), op, operands);
+					changed = true;
+				} else {
+					itemsOf.put(c, items);
+				}
+			}
+			if (!changed && itemsOf.size() > 1 && itemsOf.size() <= SUBSUMPTION_LIMIT) {
+				for (Expr c : itemsOf.keySet()) {
+					for (Expr d : itemsOf.keySet()) {
+						if (c != d && itemsOf.get(d).size() < itemsOf.get(c).size() && itemsOf.get(c).containsAll(itemsOf.get(d))) {
+							operands.remove(c);//(a|b)&(a|b|c) = a|b
+							changed = true;
+							break;
+						}
+					}
+				}
+			}
+		}
+		if (operands.isEmpty()) {
+			return identity;
+		}
+		return build(op, operands);
+	}
+
+	/**
+	 * adds the operands of a run of op to a set, so a&(b&c) and (a&b)&c give the same operands
+	 * and repeated operands are kept once
+	 */
+	private static void flatten(Expr e, int op, LinkedHashSet<Expr> operands) {
+		ArrayDeque<Expr> todo = new ArrayDeque<>();
+		todo.push(e);
+		while (!todo.isEmpty()) {
+			Expr next = todo.pop();
+			if (next.getOp() == op) {
+				todo.push(next.getRight());
+				todo.push(next.getLeft());
+			} else {
+				operands.add(next);
+			}
+		}
+	}
+
+	/**
+	 * @return the operands joined by op in id order, so the same set of operands is always the same node
+	 */
+	private static Expr build(int op, Collection<Expr> operands) {
+		Expr[] sorted = operands.toArray(new Expr[0]);
+		Arrays.sort(sorted, Comparator.comparingLong(Expr::getId));
+		Expr result = sorted[0];
+		for (int i = 1; i < sorted.length; i++) {
+			result = Expr.operator(op, result, sorted[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * how much a sentence shrank when it was simplified
+	 */
+	public static final class Report {
+		private final int sizeBefore;
+		private final int sizeAfter;
+		private final int subformulasBefore;
+		private final int subformulasAfter;
+		private final String[] eliminatedVariables;
+
+		/**
+		 * @param sizeBefore - tokens in the RPN sentence before simplifying
+		 * @param sizeAfter - tokens in the RPN sentence after simplifying
+		 * @param subformulasBefore - distinct subformulas (registers) before simplifying
+		 * @param subformulasAfter - distinct subformulas (registers) after simplifying
+		 * @param eliminatedVariables - variables that are no longer in the sentence
+		 */
+		public Report(int sizeBefore, int sizeAfter, int subformulasBefore, int subformulasAfter, String[] eliminatedVariables) {
+			this.sizeBefore = sizeBefore;
+			this.sizeAfter = sizeAfter;
+			this.subformulasBefore = subformulasBefore;
+			this.subformulasAfter = subformulasAfter;
+			this.eliminatedVariables = eliminatedVariables;
+		}
+
+		public int getSizeBefore() {
+			return sizeBefore;
+		}
+
+		public int getSizeAfter() {
+			return sizeAfter;
+		}
+
+		public int getSubformulasBefore() {
+			return subformulasBefore;
+		}
+
+		public int getSubformulasAfter() {
+			return subformulasAfter;
+		}
+
+		/**
+		 * @return variables that simplified away, each one halves the truth table
+		 */
+		public String[] getEliminatedVariables() {
+			return eliminatedVariables.clone();
+		}
+
+		@Override
+		public String toString() {
+			return "size " + sizeBefore + " -> " + sizeAfter + ", subformulas " + subformulasBefore + " -> " + subformulasAfter
+					+ ", variables eliminated: " + Arrays.toString(eliminatedVariables);
+		}
+	}
+
+	/**
+	 * a node waiting to be simplified, together with whether it is wanted negated
+	 */
+	private static final class Frame {
+		final Expr node;
+		final boolean negated;
+		int op;//operator of the run the node starts, once negation is pushed through it
+		ArrayList<Expr> terms;//operands of the run, null until collected
+		ArrayList<Boolean> termNegated;
+
+		Frame(Expr node, boolean negated) {
+			this.node = node;
+			this.negated = negated;
+		}
+
+		/**
+		 * walks down through the run of & (or |) starting at the node, passing through negations
+		 * with De Morgan and through ->, and collects the subformulas where the run ends
+		 */
+		void collectTerms() {
+			op = runOp(node.getOp(), negated);
+			terms = new ArrayList<>();
+			termNegated = new ArrayList<>();
+			ArrayDeque<Expr> todo = new ArrayDeque<>();
+			ArrayDeque<Boolean> todoNegated = new ArrayDeque<>();
+			todo.push(node.getRight());
+			todoNegated.push(negated);
+			todo.push(node.getLeft());
+			todoNegated.push(negated != (node.getOp() == Lexer.IMPLIES));//a->b = ~a|b
+			while (!todo.isEmpty()) {
+				Expr next = todo.pop();
+				boolean n = todoNegated.pop();
+				if (next.getOp() == Lexer.NOT) {
+					todo.push(next.getLeft());
+					todoNegated.push(!n);
+				} else if (isRun(next.getOp()) && runOp(next.getOp(), n) == op) {
+					todo.push(next.getRight());
+					todoNegated.push(n);
+					todo.push(next.getLeft());
+					todoNegated.push(n != (next.getOp() == Lexer.IMPLIES));
+				} else {
+					terms.add(next);
+					termNegated.add(n);
+				}
+			}
+		}
+
+		/**
+		 * @return whether nodes of the operator join runs of & and |
+		 */
+		private static boolean isRun(int op) {
+			return op == Lexer.AND || op == Lexer.OR || op == Lexer.IMPLIES;
+		}
+
+		/**
+		 * @return the operator of the run op starts, after a negation if there is one, ~(a&b) = ~a|~b
+		 */
+		private static int runOp(int op, boolean negated) {
+			if (op == Lexer.IMPLIES) {
+				op = Lexer.OR;//a->b = ~a|b
+			}
+			if (!negated) {
+				return op;
+			}
+			return op == Lexer.AND ? Lexer.OR : Lexer.AND;
+		}
+	}
+}
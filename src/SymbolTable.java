@@ -0,0 +1,60 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * shared table of variable names, every name gets an int id the first time it is seen and keeps
+ * it, so sentences can refer to variables by id instead of comparing strings
+ */
+public class SymbolTable {
+	private static final ConcurrentHashMap<String,Integer> ids = new ConcurrentHashMap<>();//name to id
+	private static volatile String[] names = new String[64];//id to name
+	private static int size;//number of ids handed out, only changed while holding the lock
+	private static final Object lock = new Object();
+
+	/**
+	 * @param name - variable name
+	 * @return id of the name, a new one if the name hasn't been seen before
+	 */
+	public static int intern(String name) {
+		Integer id = ids.get(name);
+		if (id != null) {
+			return id;
+		}
+		synchronized (lock) {
+			id = ids.get(name);
+			if (id == null) {
+				id = size;
+				if (size == names.length) {
+					names = Arrays.copyOf(names, size * 2);
+				}
+				names[size++] = name;//stored before the id is published through the map
+				ids.put(name, id);
+			}
+			return id;
+		}
+	}
+
+	/**
+	 * @param name - variable name
+	 * @return id of the name, or -1 if it has never been interned
+	 */
+	public static int lookup(String name) {
+		Integer id = ids.get(name);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * @param id - id returned by intern()
+	 * @return the variable name with that id
+	 */
+	public static String nameOf(int id) {
+		return names[id];
+	}
+
+	/**
+	 * @return number of names in the table, ids go from 0 to size() - 1
+	 */
+	public static int size() {
+		return ids.size();
+	}
+}
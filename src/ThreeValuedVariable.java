@@ -1,7 +1,10 @@
 
 public class ThreeValuedVariable {
-	private static String [] threeValues = {"True","False","Undetermined"};//the three possible values for objects
-	private String value;//the value of the object
+	public static final int TRUE = 1;//codes of the three values, the same ones the constructor takes
+	public static final int UNDETERMINED = 0;
+	public static final int FALSE = -1;
+	private static String [] threeValues = {"False","Undetermined","True"};//names of the values, indexed by code + 1
+	private byte value;//code of the value of the object
 	
 	/**
 	 * 
@@ -9,13 +12,7 @@ public class ThreeValuedVariable {
 	 * 1 is true, 0 is undetermined, -1 is false
 	 */
 	public ThreeValuedVariable(int value){
-		if(value == 1){
-			setValue(threeValues[0]);
-		}else if(value == 0){
-			setValue(threeValues[2]);
-		}else if(value == -1){
-			setValue(threeValues[1]);
-		}
+		this.value = (byte)Integer.signum(value);
 	}
 	
 	/**
@@ -23,10 +20,62 @@ public class ThreeValuedVariable {
 	 * @return return the value of this object which is a string
 	 */
 	public String getValue(){
-		return value;
+		return threeValues[value + 1];
 	}
-
+	
+	/**
+	 * @param value - name of the value, True, False or Undetermined in any case
+	 */
 	public void setValue(String value) {
-		this.value = value;
+		for(int i = 0;i < threeValues.length;i++){
+			if(threeValues[i].equalsIgnoreCase(value)){
+				this.value = (byte)(i - 1);
+				return;
+			}
+		}
+		throw new IllegalArgumentException("not a three valued value: " + value);
+	}
+	
+	/**
+	 * @return code of the value, 1 is true, 0 is undetermined, -1 is false
+	 */
+	public int toInt(){
+		return value;
+	}
+	
+	/**
+	 * @return whether the value is true
+	 */
+	public boolean isTrue(){
+		return value == TRUE;
+	}
+	
+	/**
+	 * @return whether the value is false
+	 */
+	public boolean isFalse(){
+		return value == FALSE;
+	}
+	
+	/**
+	 * @return whether the value is undetermined
+	 */
+	public boolean isUndetermined(){
+		return value == UNDETERMINED;
+	}
+	
+	@Override
+	public boolean equals(Object o){
+		return o instanceof ThreeValuedVariable && ((ThreeValuedVariable)o).value == value;
+	}
+	
+	@Override
+	public int hashCode(){
+		return value;
+	}
+	
+	@Override
+	public String toString(){
+		return getValue();
 	}
 }
@@ -0,0 +1,60 @@
+/**
+ * Tseitin transformation: turns a compiled sentence into clauses of a SatSolver (or any ClauseSink), giving every
+ * distinct binary subformula its own variable so the CNF stays linear in the size of the sentence
+ * (^, -> and <-> are encoded directly, never expanded into & and |)
+ */
+public class Tseitin {
+
+	/**
+	 * adds the clauses defining the sentence to the solver, every new variable is fixed by the
+	 * sentence's variables, so the clauses have exactly as many models as the sentence once the
+	 * returned literal is asserted
+	 * @param sentence - sentence to encode, must be well formed
+	 * @param solver - solver the clauses are added to
+	 * @param variables - solver variable for each slot of the sentence
+	 * @return literal that is true exactly when the sentence is true (not asserted)
+	 */
+	public static int encode(LogicalSentence sentence, ClauseSink solver, int[] variables) {
+		int[] code = sentence.getCode();
+		int[] literals = new int[sentence.getNumOfRegisters()];//literal of each register, shared subformulas are encoded once
+		int truth = 0;//variable fixed to true, made the first time a constant is encoded
+		for (int r = 0, j = 0; r < literals.length; r++, j += 3) {
+			int op = code[j];
+			if (op >= 0) {
+				literals[r] = variables[op];
+			} else if (op == LogicalSentence.OP_NOT) {
+				literals[r] = -literals[code[j + 1]];//negation doesn't need a new variable
+			} else if (op == LogicalSentence.OP_TRUE || op == LogicalSentence.OP_FALSE) {
+				if (truth == 0) {
+					truth = solver.newVariable();
+					solver.addClause(truth);
+				}
+				literals[r] = op == LogicalSentence.OP_TRUE ? truth : -truth;
+			} else {
+				int a = literals[code[j + 1]];
+				int b = literals[code[j + 2]];
+				int t = solver.newVariable();
+				if (op == LogicalSentence.OP_AND) {//t <-> a & b
+					solver.addClause(-t, a);
+					solver.addClause(-t, b);
+					solver.addClause(t, -a, -b);
+				} else if (op == LogicalSentence.OP_OR) {//t <-> a | b
+					solver.addClause(t, -a);
+					solver.addClause(t, -b);
+					solver.addClause(-t, a, b);
+				} else if (op == LogicalSentence.OP_IMPLIES) {//t <-> ~a | b
+					solver.addClause(t, a);
+					solver.addClause(t, -b);
+					solver.addClause(-t, -a, b);
+				} else {//t <-> a ^ b, and a <-> b is its negation
+					solver.addClause(-t, a, b);
+					solver.addClause(-t, -a, -b);
+					solver.addClause(t, -a, b);
+					solver.addClause(t, a, -b);
+				}
+				literals[r] = op == LogicalSentence.OP_IFF ? -t : t;
+			}
+		}
+		return literals[sentence.getRootRegister()];
+	}
+}